@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.atomic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter shared by many threads, e.g. a request count in a metrics library. So far we have :
+ * <ol>
+ * 	<li>AtomicInteger : incrementAndGet(), like AtomicIntegerBench</li>
+ * 	<li>AtomicLong : getAndAdd()</li>
+ * 	<li>AtomicLongCASLoop : a get() and compareAndSet() loop, which is what getAndAdd() used to be before it became an
+ * 	intrinsic</li>
+ * 	<li>LongAdder : java.util.concurrent.atomic.LongAdder which stripes the count over cells once it sees contention</li>
+ * 	<li>StripedCounter : one cache-line padded slot per thread (handed out in thread order), summed up on reads</li>
+ * </ol>
+ */
+public abstract class Counter {
+
+	public abstract void increment();
+
+	public abstract long get();
+
+	public static Counter newCounter(String counterType) {
+		if(counterType.equals("AtomicInteger")) {
+			return new AtomicIntegerCounter();
+		} else if(counterType.equals("AtomicLong")) {
+			return new AtomicLongCounter();
+		} else if(counterType.equals("AtomicLongCASLoop")) {
+			return new AtomicLongCASLoopCounter();
+		} else if(counterType.equals("LongAdder")) {
+			return new LongAdderCounter();
+		} else if(counterType.equals("StripedCounter")) {
+			return new StripedCounter(Runtime.getRuntime().availableProcessors() * 2);
+		}
+		throw new IllegalArgumentException("Unknown counter type : " + counterType);
+	}
+
+	static class AtomicIntegerCounter extends Counter {
+		private final AtomicInteger atom = new AtomicInteger();
+
+		@Override
+		public void increment() {
+			atom.incrementAndGet();
+		}
+
+		@Override
+		public long get() {
+			return atom.get();
+		}
+	}
+
+	static class AtomicLongCounter extends Counter {
+		private final AtomicLong atom = new AtomicLong();
+
+		@Override
+		public void increment() {
+			atom.getAndAdd(1);
+		}
+
+		@Override
+		public long get() {
+			return atom.get();
+		}
+	}
+
+	static class AtomicLongCASLoopCounter extends Counter {
+		private final AtomicLong atom = new AtomicLong();
+
+		@Override
+		public void increment() {
+			long current;
+			do {
+				current = atom.get();
+			} while(!atom.compareAndSet(current, current + 1));
+		}
+
+		@Override
+		public long get() {
+			return atom.get();
+		}
+	}
+
+	static class LongAdderCounter extends Counter {
+		private final LongAdder adder = new LongAdder();
+
+		@Override
+		public void increment() {
+			adder.increment();
+		}
+
+		@Override
+		public long get() {
+			return adder.sum();
+		}
+	}
+
+	/**
+	 * Each thread increments its own slot, handed out to threads in the order they first increment, so as long as
+	 * there are more slots than threads, a slot is only written by one thread. Slots are 128 bytes apart (2 cache
+	 * lines, because of the adjacent line prefetcher on Intel) so that different slots never share a cache line. Reads
+	 * have to add up all the slots.
+	 */
+	static class StripedCounter extends Counter {
+		//16 longs = 128 bytes
+		private static final int SLOT_STRIDE_SHIFT = 4;
+		private static final AtomicInteger NEXT_THREAD_INDEX = new AtomicInteger();
+		//Rather than Thread.getId(), which is deprecated from JDK19
+		private static final ThreadLocal<Integer> THREAD_INDEX =
+				ThreadLocal.withInitial(NEXT_THREAD_INDEX::getAndIncrement);
+
+		private final AtomicLongArray slots;
+		private final int slotMask;
+
+		StripedCounter(int minSlots) {
+			int numSlots = Integer.highestOneBit(Math.max(minSlots, 2) - 1) << 1;
+			slots = new AtomicLongArray(numSlots << SLOT_STRIDE_SHIFT);
+			slotMask = numSlots - 1;
+		}
+
+		@Override
+		public void increment() {
+			int slot = THREAD_INDEX.get() & slotMask;
+			//Another thread may share our slot, so this still has to be atomic.
+			slots.getAndIncrement(slot << SLOT_STRIDE_SHIFT);
+		}
+
+		@Override
+		public long get() {
+			long sum = 0;
+			for(int slot = 0; slot <= slotMask; ++slot) {
+				sum += slots.get(slot << SLOT_STRIDE_SHIFT);
+			}
+			return sum;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.atomic;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.java.bench.util.ThreadScalingRunner;
+
+/**
+ * This benchmark tests how frequently a shared counter can be incremented (and read) by many threads. Please see
+ * Counter for the different kinds of counters. When built with JDK9+, VarHandleCounterBench has the VarHandle versions.
+ *
+ * There are two benchmarks :
+ * <ol>
+ * 	<li>increment : every thread only increments.</li>
+ * 	<li>readWhileWriting : a JMH group of 1 reader and 3 writers. Striped counters (LongAdder and StripedCounter) are
+ * 	cheap to write but expensive to read, so this shows what that costs.</li>
+ * </ol>
+ *
+ * To see how the counters scale with the number of threads, please run the main() method. It runs increment (of both
+ * CounterBench and VarHandleCounterBench) with 1, 2, 4, ... threads up to the number of cores, and twice that.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class CounterBench {
+
+	@State(Scope.Benchmark)
+	public static class CounterState {
+		@Param({"AtomicInteger", "AtomicLong", "AtomicLongCASLoop", "LongAdder", "StripedCounter"})
+		String counterType;
+
+		Counter counter;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			counter = Counter.newCounter(counterType);
+		}
+	}
+
+	@Benchmark
+	public void increment(CounterState state) {
+		state.counter.increment();
+	}
+
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(1)
+	public long read(CounterState state) {
+		return state.counter.get();
+	}
+
+	@Benchmark
+	@Group("readWhileWriting")
+	@GroupThreads(3)
+	public void write(CounterState state) {
+		state.counter.increment();
+	}
+
+	/**
+	 * Runs the increment benchmark with 1, 2, 4, ... threads, up to the number of cores and twice that (please see
+	 * ThreadScalingRunner). Any other JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.atomic.CounterBench -f 1 -wi 3 -i 5
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException,
+			InterruptedException {
+		Options opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				//Also matches VarHandleCounterBench.increment when it was built
+				.include("\\.(VarHandle)?CounterBench\\.increment$")
+				.build();
+		ThreadScalingRunner.run(opts, ThreadScalingRunner.threadCounts(Runtime.getRuntime().availableProcessors()));
+	}
+
+}
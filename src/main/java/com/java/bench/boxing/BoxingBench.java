@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.boxing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how much boxing and varargs cost, mostly in allocations. The time per operation is only half of
+ * the story : every allocation brings the next young GC closer. So please run the main() method, which adds the JMH GC
+ * profiler. Its gc.alloc.rate.norm result is the number of bytes allocated per operation, and gc.count the number of
+ * GCs during the run.
+ *
+ * The benchmarks are :
+ * <ol>
+ * 	<li>sumInts / sumBoxedAccumulator / sumListOfIntegers : add up ARRAY_SIZE numbers from an int[] into an int, from an
+ * 	int[] into a Long (every += unboxes, adds and boxes a new Long) and from a List&lt;Integer&gt; (unboxing only).</li>
+ * 	<li>valueOfEscaping : Integer.valueOf() of a random number up to keyRange, returned (so it escapes). Integers
+ * 	-128 to 127 come from the Integer cache, others are allocated. Lookup and HashMapBench use keys well outside the
+ * 	cache, so they are in the same boat.</li>
+ * 	<li>valueOfNotEscaping : the same, but only the int inside the Integer is used. Escape analysis may get rid of the
+ * 	allocation (it often can't, because of the branch to the cache inside valueOf()).</li>
+ * 	<li>varargsDisabled / varargsGuarded / fixedArityDisabled : a logging-style debug("{} {}", a, b, ...) call with
+ * 	debug logging off. Varargs (3 int arguments) allocate an Object[] and box every argument before the callee can check
+ * 	the level, unless the call is inlined and escape analysis gets rid of them. Checking isDebugEnabled() at the call
+ * 	site allocates nothing. A fixed arity overload (2 arguments, like SLF4J's) saves the array, but still boxes.</li>
+ * </ol>
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class BoxingBench {
+	private static final int ARRAY_SIZE = 1024;
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	@State(Scope.Thread)
+	public static class DataState {
+		int[] ints = new int[ARRAY_SIZE];
+		List<Integer> integers = new ArrayList<>(ARRAY_SIZE);
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			BenchRandomUtil rng = new BenchRandomUtil();
+			for(int i = 0; i < ARRAY_SIZE; ++i) {
+				ints[i] = rng.getNextXorShiftRN();
+				integers.add(ints[i]);
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class BoxState {
+		//The range of the numbers that are boxed. MUST BE 2^n-1 since our modulo operation depends on it.
+		//127 always hits the Integer cache, the others mostly miss it.
+		@Param({"127", "1023", "32767"})
+		int keyRange;
+	}
+
+	/**
+	 * A logger with only the API that matters here. Debug logging is off, but not in a way that the JIT can fold.
+	 */
+	@State(Scope.Thread)
+	public static class Logger {
+		boolean debugEnabled = false;
+		StringBuilder out = new StringBuilder();
+
+		public boolean isDebugEnabled() {
+			return debugEnabled;
+		}
+
+		public void debug(String format, Object... args) {
+			if(debugEnabled) {
+				out.append(format);
+				for(Object arg : args) {
+					out.append(' ').append(arg);
+				}
+			}
+		}
+
+		public void debug(String format, Object arg1, Object arg2) {
+			if(debugEnabled) {
+				out.append(format).append(' ').append(arg1).append(' ').append(arg2);
+			}
+		}
+	}
+
+	@Benchmark
+	public int sumInts(DataState dataState) {
+		int sum = 0;
+		for(int i : dataState.ints) {
+			sum += i;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public Long sumBoxedAccumulator(DataState dataState) {
+		Long sum = 0L;
+		for(int i : dataState.ints) {
+			sum += i;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int sumListOfIntegers(DataState dataState) {
+		int sum = 0;
+		for(Integer i : dataState.integers) {
+			sum += i;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public Integer valueOfEscaping(RNGState rngState, BoxState boxState) {
+		//This is similar to a modulo operation since keyRange is 2^n - 1
+		return Integer.valueOf(rngState.rng.getNextXorShiftRN() & boxState.keyRange);
+	}
+
+	@Benchmark
+	public int valueOfNotEscaping(RNGState rngState, BoxState boxState) {
+		Integer boxed = Integer.valueOf(rngState.rng.getNextXorShiftRN() & boxState.keyRange);
+		return boxed.intValue() + 1;
+	}
+
+	@Benchmark
+	public void varargsDisabled(RNGState rngState, Logger logger) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		logger.debug("Request {} from {} took {} us", rn, rn >>> 16, rn & 0xFFFF);
+	}
+
+	@Benchmark
+	public void varargsGuarded(RNGState rngState, Logger logger) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		if(logger.isDebugEnabled()) {
+			logger.debug("Request {} from {} took {} us", rn, rn >>> 16, rn & 0xFFFF);
+		}
+	}
+
+	@Benchmark
+	public void fixedArityDisabled(RNGState rngState, Logger logger) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		logger.debug("Request {} took {} us", rn, rn >>> 16);
+	}
+
+	/**
+	 * Runs this benchmark with the GC profiler, to get the bytes allocated per operation and the GC counts. Any other
+	 * JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.boxing.BoxingBench -f 1 -wi 3 -i 5
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(BoxingBench.class.getName() + ".")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(opts).run();
+	}
+
+}
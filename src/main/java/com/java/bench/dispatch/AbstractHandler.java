@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.dispatch;
+
+/**
+ * The implementations of Handler that DispatchBench calls. There are 8 of them (Handler0 ... Handler7), each a class of
+ * its own, so that a call site can be made to see 1 to 8 different types. They are all final and there are no others,
+ * i.e. this is a "sealed" hierarchy (without the JDK17 keyword) : code can switch on the type with instanceof.
+ *
+ * Calls through this abstract class are invokevirtual (a vtable call when megamorphic). Calls through Handler are
+ * invokeinterface (an itable call, which has to search for the interface first).
+ */
+public abstract class AbstractHandler implements Handler {
+	public static final int NUM_TYPES = 8;
+
+	/**
+	 * @param type 0 to NUM_TYPES - 1
+	 */
+	public static AbstractHandler newHandler(int type) {
+		switch(type) {
+		case 0: return new Handler0();
+		case 1: return new Handler1();
+		case 2: return new Handler2();
+		case 3: return new Handler3();
+		case 4: return new Handler4();
+		case 5: return new Handler5();
+		case 6: return new Handler6();
+		case 7: return new Handler7();
+		}
+		throw new IllegalArgumentException("Unknown handler type : " + type);
+	}
+
+	//Every handler does something a little different, so that the JIT can't merge them.
+
+	public static final class Handler0 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 7;
+		}
+	}
+
+	public static final class Handler1 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 11;
+		}
+	}
+
+	public static final class Handler2 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 13;
+		}
+	}
+
+	public static final class Handler3 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 17;
+		}
+	}
+
+	public static final class Handler4 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 19;
+		}
+	}
+
+	public static final class Handler5 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 23;
+		}
+	}
+
+	public static final class Handler6 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 29;
+		}
+	}
+
+	public static final class Handler7 extends AbstractHandler {
+		@Override
+		public int handle(int request) {
+			return request * 31 + 37;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.dispatch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how expensive it is to call a method through an interface or abstract class reference, compared
+ * to a concrete (final) type, depending on how many types the call site has seen. Each call picks one of 8 handlers at
+ * random (so the types are interleaved, like requests to a router), and the handlers are of callSiteTypes different
+ * classes :
+ * <ul>
+ * 	<li>1 : monomorphic. The JIT inlines the only type behind a cheap type check.</li>
+ * 	<li>2 : bimorphic. The JIT inlines both types behind type checks.</li>
+ * 	<li>3 or more : megamorphic. No inlining, every call is a vtable / itable call.</li>
+ * </ul>
+ *
+ * The benchmarks are :
+ * <ol>
+ * 	<li>baseline : only picks the handler and generates the request. Subtract this from the others.</li>
+ * 	<li>finalClass : calls a final class directly, so there is nothing to dispatch, whatever callSiteTypes is.</li>
+ * 	<li>interfaceCall : calls through the Handler interface.</li>
+ * 	<li>abstractClassCall : calls through the AbstractHandler abstract class.</li>
+ * 	<li>instanceofChain : "sealed" dispatch. Since all the handler classes are known, test for each with instanceof and
+ * 	call it through its final type, which is inlined. This is what a pattern-matching switch over a sealed interface
+ * 	does.</li>
+ * 	<li>tagSwitch : one final class with a type tag and a switch statement (TaggedHandler).</li>
+ * </ol>
+ *
+ * Since the types are interleaved at random, the branches that pick the type are unpredictable whichever way the
+ * dispatch is done. So with 2 or more types, expect much of the difference from monomorphic to be branch mispredictions.
+ *
+ * JMH forks a new JVM for every value of callSiteTypes, so please don't run this with -f 0 : the type profile of an
+ * earlier run would pollute the next.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Lower numbers mean better performance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(Threads.MAX)
+public class DispatchBench {
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	@State(Scope.Thread)
+	public static class HandlerState {
+		//The number of different classes each call site sees.
+		@Param({"1", "2", "3", "8"})
+		int callSiteTypes;
+
+		//These MUST BE 2^n long since we pick from them with a mask. Entry i of each does the same thing.
+		Handler[] interfaces = new Handler[AbstractHandler.NUM_TYPES];
+		AbstractHandler[] abstracts = new AbstractHandler[AbstractHandler.NUM_TYPES];
+		TaggedHandler[] tagged = new TaggedHandler[AbstractHandler.NUM_TYPES];
+		AbstractHandler.Handler0 finalHandler = new AbstractHandler.Handler0();
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			for(int i = 0; i < AbstractHandler.NUM_TYPES; ++i) {
+				int type = i % callSiteTypes;
+				interfaces[i] = AbstractHandler.newHandler(type);
+				abstracts[i] = AbstractHandler.newHandler(type);
+				tagged[i] = new TaggedHandler(type);
+			}
+		}
+	}
+
+	@Benchmark
+	public AbstractHandler baseline(RNGState rngState, HandlerState handlerState) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		return handlerState.abstracts[rn & 7];
+	}
+
+	@Benchmark
+	public int finalClass(RNGState rngState, HandlerState handlerState) {
+		return handlerState.finalHandler.handle(rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int interfaceCall(RNGState rngState, HandlerState handlerState) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		return handlerState.interfaces[rn & 7].handle(rn);
+	}
+
+	@Benchmark
+	public int abstractClassCall(RNGState rngState, HandlerState handlerState) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		return handlerState.abstracts[rn & 7].handle(rn);
+	}
+
+	@Benchmark
+	public int instanceofChain(RNGState rngState, HandlerState handlerState) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		AbstractHandler handler = handlerState.abstracts[rn & 7];
+		if(handler instanceof AbstractHandler.Handler0) {
+			return ((AbstractHandler.Handler0) handler).handle(rn);
+		} else if(handler instanceof AbstractHandler.Handler1) {
+			return ((AbstractHandler.Handler1) handler).handle(rn);
+		} else if(handler instanceof AbstractHandler.Handler2) {
+			return ((AbstractHandler.Handler2) handler).handle(rn);
+		} else if(handler instanceof AbstractHandler.Handler3) {
+			return ((AbstractHandler.Handler3) handler).handle(rn);
+		} else if(handler instanceof AbstractHandler.Handler4) {
+			return ((AbstractHandler.Handler4) handler).handle(rn);
+		} else if(handler instanceof AbstractHandler.Handler5) {
+			return ((AbstractHandler.Handler5) handler).handle(rn);
+		} else if(handler instanceof AbstractHandler.Handler6) {
+			return ((AbstractHandler.Handler6) handler).handle(rn);
+		}
+		return ((AbstractHandler.Handler7) handler).handle(rn);
+	}
+
+	@Benchmark
+	public int tagSwitch(RNGState rngState, HandlerState handlerState) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		return handlerState.tagged[rn & 7].handle(rn);
+	}
+
+}
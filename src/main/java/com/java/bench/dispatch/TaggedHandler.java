@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.dispatch;
+
+/**
+ * The alternative to a class per handler : one final class with a type tag, and a switch on the tag. There is only
+ * ever one type at the call site, so it is always monomorphic, and the switch (a jump table) does the dispatch.
+ */
+public final class TaggedHandler {
+	private final int type;
+
+	/**
+	 * @param type 0 to AbstractHandler.NUM_TYPES - 1. It does the same as AbstractHandler.newHandler(type).
+	 */
+	public TaggedHandler(int type) {
+		if(type < 0 || type >= AbstractHandler.NUM_TYPES) {
+			throw new IllegalArgumentException("Unknown handler type : " + type);
+		}
+		this.type = type;
+	}
+
+	public int handle(int request) {
+		switch(type) {
+		case 0: return request * 31 + 7;
+		case 1: return request * 31 + 11;
+		case 2: return request * 31 + 13;
+		case 3: return request * 31 + 17;
+		case 4: return request * 31 + 19;
+		case 5: return request * 31 + 23;
+		case 6: return request * 31 + 29;
+		default: return request * 31 + 37;
+		}
+	}
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.executors;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.java.bench.latency.FixedRateDriver;
+import com.java.bench.latency.LatencyRecorder;
+
+/**
+ * This benchmark tests how many small tasks per second can be dispatched to different executors (please see
+ * TaskExecutors for the executorTypes), e.g. when a request is fanned out. Every task burns workTokens of CPU
+ * (Blackhole.consumeCPU), so 0 is pure dispatch overhead. Every operation is BATCH_SIZE tasks, and the scores are per
+ * task.
+ * <ol>
+ * 	<li>submitEach : submit() BATCH_SIZE tasks one by one, then wait for all of their Futures.</li>
+ * 	<li>invokeAll : hand all BATCH_SIZE tasks over in one invokeAll() call.</li>
+ * 	<li>thenApply : a CompletableFuture chain of BATCH_SIZE stages, started with supplyAsync() on the executor. The
+ * 	stages run in whichever thread completed the previous one (or in the caller, if it already had), so mostly
+ * 	without any dispatch.</li>
+ * 	<li>thenApplyAsync : the same chain, but every stage is dispatched to the executor again.</li>
+ * </ol>
+ * Throughput hides how long a task waits before it starts. Please run the main() method for the submit-to-start
+ * latency percentiles of every executor too, measured at a fixed rate of submissions (please see StartLatency).
+ *
+ * By default:
+ * 1. This test spawns only 1 thread, which submits to executors of as many threads as there are cores. To have more
+ * submitting threads, please pass e.g. "-t 4".
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class ExecutorBench {
+	static final int BATCH_SIZE = 100;
+	static final int THREADS = Runtime.getRuntime().availableProcessors();
+	static final List<String> EXECUTOR_TYPES = Collections.unmodifiableList(Arrays.asList("ArrayBlockingQueue",
+			"LinkedBlockingQueue", "SynchronousQueue", "ForkJoinPool.commonPool", "ForkJoinPool",
+			"ForkJoinPool.asyncMode"));
+	static final long DEFAULT_START_LATENCY_OPS_PER_SECOND = 100000;
+	static final double DEFAULT_START_LATENCY_SECONDS = 5;
+
+	private static final double[] PERCENTILES = {50, 99, 99.9};
+
+	@State(Scope.Benchmark)
+	public static class ExecutorState {
+		//Please keep in sync with EXECUTOR_TYPES
+		@Param({"ArrayBlockingQueue", "LinkedBlockingQueue", "SynchronousQueue", "ForkJoinPool.commonPool",
+				"ForkJoinPool", "ForkJoinPool.asyncMode"})
+		String executorType;
+
+		@Param({"0", "100"})
+		int workTokens;
+
+		ExecutorService executor;
+		Runnable task;
+		List<Callable<Object>> batch;
+		Supplier<Long> firstStage;
+		Function<Long, Long> nextStage;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			executor = TaskExecutors.newExecutor(executorType, THREADS);
+			final int tokens = workTokens;
+			task = () -> Blackhole.consumeCPU(tokens);
+			batch = Collections.nCopies(BATCH_SIZE, Executors.callable(task));
+			firstStage = () -> {
+				Blackhole.consumeCPU(tokens);
+				return 1L;
+			};
+			nextStage = previous -> {
+				Blackhole.consumeCPU(tokens);
+				return previous + 1;
+			};
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			//Has no effect on the common pool.
+			executor.shutdown();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void submitEach(ExecutorState state) throws InterruptedException, ExecutionException {
+		Future<?>[] futures = new Future<?>[BATCH_SIZE];
+		for(int i = 0; i < BATCH_SIZE; ++i) {
+			futures[i] = state.executor.submit(state.task);
+		}
+		for(Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void invokeAll(ExecutorState state) throws InterruptedException, ExecutionException {
+		for(Future<Object> future : state.executor.invokeAll(state.batch)) {
+			future.get();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public Long thenApply(ExecutorState state) {
+		CompletableFuture<Long> future = CompletableFuture.supplyAsync(state.firstStage, state.executor);
+		for(int i = 1; i < BATCH_SIZE; ++i) {
+			future = future.thenApply(state.nextStage);
+		}
+		return future.join();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public Long thenApplyAsync(ExecutorState state) {
+		CompletableFuture<Long> future = CompletableFuture.supplyAsync(state.firstStage, state.executor);
+		for(int i = 1; i < BATCH_SIZE; ++i) {
+			future = future.thenApplyAsync(state.nextStage, state.executor);
+		}
+		return future.join();
+	}
+
+	/**
+	 * Measures the submit-to-start latency of tasks submitted at a fixed rate with execute() by one FixedRateDriver
+	 * thread, after a warm up run of as long.
+	 * @return The latencies of submitting (from when every submission should have started, so without coordinated
+	 * omission), and the submit-to-start latencies, in nanoseconds
+	 */
+	static LatencyRecorder[] measureStartLatency(String executorType, long opsPerSecond, double seconds)
+			throws InterruptedException {
+		ExecutorService executor = TaskExecutors.newExecutor(executorType, THREADS);
+		try {
+			FixedRateDriver driver = new FixedRateDriver(1, opsPerSecond);
+			//Warm up (JIT, thread creation, queue growth...) for as long as the measurement.
+			runStartLatency(executor, driver, seconds);
+			return runStartLatency(executor, driver, seconds);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static LatencyRecorder[] runStartLatency(ExecutorService executor, FixedRateDriver driver, double seconds)
+			throws InterruptedException {
+		StartLatency startLatency = new StartLatency();
+		Runnable noop = () -> { };
+		FixedRateDriver.Result result = driver.run(() -> executor.execute(startLatency.newTask(noop)), seconds);
+		return new LatencyRecorder[] {result.corrected, startLatency.awaitAll()};
+	}
+
+	/**
+	 * Runs this benchmark and prints the tasks/s of every executor by benchmark, and then the submit-to-start latency
+	 * percentiles of every executor. Any other JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.executors.ExecutorBench -f 1 -wi 3 -i 5 -p workTokens=0
+	 *
+	 * To only measure the submit-to-start latency, e.g. at 50000 tasks per second for 10 seconds :
+	 * $ java -cp target/javabench.jar com.java.bench.executors.ExecutorBench startLatency 50000 10 [executorType ...]
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, InterruptedException {
+		if(args.length > 0 && args[0].equals("startLatency")) {
+			if(args.length < 3) {
+				System.err.println("Usage : ExecutorBench startLatency <opsPerSecond> <seconds> [executorType ...]");
+				System.exit(1);
+			}
+			List<String> executorTypes = args.length > 3 ? Arrays.asList(args).subList(3, args.length)
+					: EXECUTOR_TYPES;
+			printStartLatencies(Long.parseLong(args[1]), Double.parseDouble(args[2]), executorTypes);
+			return;
+		}
+
+		Options opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(ExecutorBench.class.getName() + ".")
+				.build();
+
+		//executorType and workTokens -> benchmark -> tasks/s
+		Map<String, Map<String, Double>> summary = new LinkedHashMap<>();
+		List<String> benchmarks = Arrays.asList("submitEach", "invokeAll", "thenApply", "thenApplyAsync");
+		for(RunResult result : new Runner(opts).run()) {
+			String name = result.getParams().getBenchmark();
+			name = name.substring(name.lastIndexOf('.') + 1);
+			String row = String.format("%-24s %10s", result.getParams().getParam("executorType"),
+					result.getParams().getParam("workTokens"));
+			summary.computeIfAbsent(row, r -> new LinkedHashMap<>()).put(name, result.getPrimaryResult().getScore());
+		}
+
+		StringBuilder table = new StringBuilder(String.format("%-24s %10s", "executorType", "workTokens"));
+		for(String benchmark : benchmarks) {
+			table.append(String.format(" %16s", benchmark));
+		}
+		table.append(String.format("   (tasks/s)%n"));
+		for(Map.Entry<String, Map<String, Double>> row : summary.entrySet()) {
+			table.append(row.getKey());
+			for(String benchmark : benchmarks) {
+				Double score = row.getValue().get(benchmark);
+				table.append(String.format(" %16.0f", score == null ? Double.NaN : score));
+			}
+			table.append(String.format("%n"));
+		}
+		System.out.println(table);
+
+		printStartLatencies(DEFAULT_START_LATENCY_OPS_PER_SECOND, DEFAULT_START_LATENCY_SECONDS, EXECUTOR_TYPES);
+	}
+
+	private static void printStartLatencies(long opsPerSecond, double seconds, List<String> executorTypes)
+			throws InterruptedException {
+		StringBuilder table = new StringBuilder(String.format("Submit-to-start latency of %d tasks/s for %.1f s, on %d"
+				+ " threads. Latencies in us.%n", opsPerSecond, seconds, THREADS));
+		table.append(String.format("%-24s %10s %10s %10s %10s %16s%n", "executorType", "p50", "p99", "p99.9", "max",
+				"execute() p99.9"));
+		for(String executorType : executorTypes) {
+			LatencyRecorder[] latencies = measureStartLatency(executorType, opsPerSecond, seconds);
+			LatencyRecorder start = latencies[1];
+			table.append(String.format("%-24s", executorType));
+			for(double percentile : PERCENTILES) {
+				table.append(String.format(" %10.1f", start.getValueAtPercentile(percentile) / 1e3));
+			}
+			table.append(String.format(" %10.1f %16.1f%n", start.getMax() / 1e3,
+					latencies[0].getValueAtPercentile(99.9) / 1e3));
+		}
+		System.out.println(table);
+	}
+
+}
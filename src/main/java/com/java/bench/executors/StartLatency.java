@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.executors;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.java.bench.latency.LatencyRecorder;
+
+/**
+ * Records the submit-to-start latency of tasks, i.e. the time from when a task was created for submission until an
+ * executor thread started running it : the time it spent being handed over, in a queue, or waiting for a thread to
+ * wake up. Every thread that runs tasks records into its own LatencyRecorder (which isn't thread-safe), and
+ * awaitAll() adds them up.
+ */
+public class StartLatency {
+	/*
+	 * Not a ThreadLocal, because the threads of the common ForkJoinPool may erase their ThreadLocals after every task.
+	 * Please see ForkJoinPool's InnocuousForkJoinWorkerThread.
+	 */
+	private final Map<Thread, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+	private final AtomicLong created = new AtomicLong();
+	//Incremented after recording, so that a thread which reads it also sees the latencies recorded before.
+	private final AtomicLong started = new AtomicLong();
+
+	/**
+	 * @return A task that records its submit-to-start latency and then runs work. Please submit it right away.
+	 */
+	public Runnable newTask(Runnable work) {
+		created.incrementAndGet();
+		final long createdNanos = System.nanoTime();
+		return () -> {
+			long startNanos = System.nanoTime();
+			Thread thread = Thread.currentThread();
+			LatencyRecorder recorder = recorders.get(thread);
+			if(recorder == null) {
+				recorder = new LatencyRecorder();
+				recorders.put(thread, recorder);
+			}
+			recorder.record(startNanos - createdNanos);
+			started.incrementAndGet();
+			work.run();
+		};
+	}
+
+	/**
+	 * Waits until every task from newTask() has started.
+	 * @return The submit-to-start latencies of all of them, in nanoseconds
+	 */
+	public LatencyRecorder awaitAll() throws InterruptedException {
+		while(started.get() < created.get()) {
+			Thread.sleep(1);
+		}
+		LatencyRecorder total = new LatencyRecorder();
+		for(LatencyRecorder threadRecorder : recorders.values()) {
+			total.add(threadRecorder);
+		}
+		return total;
+	}
+}
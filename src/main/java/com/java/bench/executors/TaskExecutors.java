@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.executors;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ExecutorServices tasks are dispatched to in ExecutorBench. So far we have :
+ * <ol>
+ * 	<li>ArrayBlockingQueue : a ThreadPoolExecutor of a fixed number of threads with a bounded queue of QUEUE_CAPACITY.
+ * 	When the queue is full, the submitting thread runs the task itself (CallerRunsPolicy).</li>
+ * 	<li>LinkedBlockingQueue : a ThreadPoolExecutor of a fixed number of threads with an unbounded queue (like
+ * 	Executors.newFixedThreadPool()).</li>
+ * 	<li>SynchronousQueue : a ThreadPoolExecutor that hands every task directly to an idle thread, and starts another
+ * 	thread when none is idle (like Executors.newCachedThreadPool(), but keeping `threads` threads around).</li>
+ * 	<li>ForkJoinPool.commonPool : the shared ForkJoinPool. Its parallelism is the number of cores - 1, and it can't be
+ * 	shut down.</li>
+ * 	<li>ForkJoinPool : a dedicated ForkJoinPool (LIFO work queues).</li>
+ * 	<li>ForkJoinPool.asyncMode : a dedicated ForkJoinPool with FIFO work queues, meant for event-style tasks that are
+ * 	never joined.</li>
+ * </ol>
+ */
+public final class TaskExecutors {
+	static final int QUEUE_CAPACITY = 1024;
+
+	private TaskExecutors() {
+	}
+
+	/**
+	 * @param executorType One of the types above
+	 * @param threads The number of threads (the parallelism of a ForkJoinPool). Ignored by the common pool.
+	 */
+	public static ExecutorService newExecutor(String executorType, int threads) {
+		if(executorType.equals("ArrayBlockingQueue")) {
+			return prestarted(new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(QUEUE_CAPACITY), new ThreadPoolExecutor.CallerRunsPolicy()));
+		} else if(executorType.equals("LinkedBlockingQueue")) {
+			return prestarted(new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>()));
+		} else if(executorType.equals("SynchronousQueue")) {
+			return prestarted(new ThreadPoolExecutor(threads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+					new SynchronousQueue<>()));
+		} else if(executorType.equals("ForkJoinPool.commonPool")) {
+			return ForkJoinPool.commonPool();
+		} else if(executorType.equals("ForkJoinPool")) {
+			return new ForkJoinPool(threads);
+		} else if(executorType.equals("ForkJoinPool.asyncMode")) {
+			return new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+		}
+		throw new IllegalArgumentException("Unknown executor type : " + executorType);
+	}
+
+	//Start the threads now, so that the first tasks don't pay for them.
+	private static ExecutorService prestarted(ThreadPoolExecutor pool) {
+		pool.prestartAllCoreThreads();
+		return pool;
+	}
+}
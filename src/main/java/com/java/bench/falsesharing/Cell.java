@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.falsesharing;
+
+/**
+ * A per-thread counter, like a per-core stat struct. When the Cells of different threads are allocated one after the
+ * other, they end up next to each other on the heap. So far we have :
+ * <ol>
+ * 	<li>adjacent : just the long. A few of these fit in one cache line, so threads writing to their own Cell still
+ * 	fight over the cache line (false sharing : https://en.wikipedia.org/wiki/False_sharing).</li>
+ * 	<li>padded : the long has 7 longs of padding on either side, so no two Cells can share a cache line.</li>
+ * </ol>
+ * When built with JDK9+, ContendedFalseSharingBench has a Cell padded by the JVM itself using @Contended.
+ */
+public abstract class Cell {
+
+	public abstract void increment();
+
+	public abstract long get();
+
+	public static Cell newCell(String layout) {
+		if(layout.equals("adjacent")) {
+			return new AdjacentCell();
+		} else if(layout.equals("padded")) {
+			return new PaddedCell();
+		}
+		throw new IllegalArgumentException("Unknown cell layout : " + layout);
+	}
+
+	static class AdjacentCell extends Cell {
+		private long value;
+
+		@Override
+		public void increment() {
+			value++;
+		}
+
+		@Override
+		public long get() {
+			return value;
+		}
+	}
+
+	/**
+	 * HotSpot may reorder the fields of a class, but it always lays out the fields of a superclass before those of a
+	 * subclass. So the padding is split over a class hierarchy (like the Disruptor's Sequence) : left padding, then
+	 * the value, then right padding.
+	 */
+	abstract static class LeftPadding extends Cell {
+		long p1, p2, p3, p4, p5, p6, p7;
+	}
+
+	abstract static class PaddedValue extends LeftPadding {
+		long value;
+	}
+
+	static class PaddedCell extends PaddedValue {
+		long p9, p10, p11, p12, p13, p14, p15;
+
+		@Override
+		public void increment() {
+			value++;
+		}
+
+		@Override
+		public long get() {
+			return value;
+		}
+	}
+}
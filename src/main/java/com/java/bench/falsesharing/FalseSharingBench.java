@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.falsesharing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * This benchmark tests how much false sharing (https://en.wikipedia.org/wiki/False_sharing) costs. Every thread only
+ * ever writes its own counter, so there is no real sharing at all. The counters are either :
+ * <ol>
+ * 	<li>writeCell : Cell objects, one per thread, allocated one after the other. Please see Cell for the layouts.</li>
+ * 	<li>writeSlot : slots in one long[], stride longs apart. With a stride of 8 (64 bytes) every thread has its own
+ * 	cache line. With 16 (128 bytes) the adjacent line prefetcher doesn't drag in the neighbour's line either.</li>
+ * </ol>
+ *
+ * With only 1 thread there is no false sharing, so please compare against a run with -t 1.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class FalseSharingBench {
+
+	@State(Scope.Thread)
+	public static class ThreadIndex {
+		int index;
+
+		@Setup(Level.Trial)
+		public void setup(ThreadParams threadParams) {
+			index = threadParams.getThreadIndex();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class CellState {
+		@Param({"adjacent", "padded"})
+		String layout;
+
+		Cell[] cells;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup(ThreadParams threadParams) {
+			//Allocating all the Cells in a row in one thread puts them next to each other on the heap.
+			cells = new Cell[threadParams.getThreadCount()];
+			for(int i = 0; i < cells.length; ++i) {
+				cells[i] = Cell.newCell(layout);
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SlotState {
+		//The distance between the slots of two threads, in longs.
+		@Param({"1", "2", "4", "8", "16"})
+		int stride;
+
+		long[] slots;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup(ThreadParams threadParams) {
+			//One spare stride at either end : the array header is read on every bounds check, so it must not share a cache
+			//line with the first slot, and nothing else should be allocated next to the last slot.
+			slots = new long[(threadParams.getThreadCount() + 2) * stride];
+		}
+	}
+
+	@Benchmark
+	public void writeCell(CellState cellState, ThreadIndex thread) {
+		cellState.cells[thread.index].increment();
+	}
+
+	@Benchmark
+	public void writeSlot(SlotState slotState, ThreadIndex thread) {
+		slotState.slots[(thread.index + 1) * slotState.stride]++;
+	}
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.handoff;
+
+import java.util.concurrent.Exchanger;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * This benchmark tests how quickly threads can hand off control to each other. The threads form a ring and take turns
+ * in a deterministic round-robin : thread i runs, then wakes up thread i+1, and so on. We round-robin amongst all
+ * threads (rather than bounce between only 2) because we want the handoff to migrate across all CPUs.
+ *
+ * Each benchmark is a different way of handing off :
+ * <ol>
+ * 	<li>waitNotifyAll : wait() and notifyAll() on one monitor. Every handoff wakes up every thread, and all but one go
+ * 	back to waiting (thundering herd).</li>
+ * 	<li>parkUnpark : LockSupport.park() and a targeted LockSupport.unpark() of only the next thread.</li>
+ * 	<li>condition : one ReentrantLock with a Condition per thread, so that only the next thread is signalled.</li>
+ * 	<li>synchronousQueue : a token is passed through a SynchronousQueue per thread.</li>
+ * 	<li>exchanger : a token is passed through an Exchanger per thread.</li>
+ * 	<li>busySpin : threads spin on a volatile turn. No thread ever blocks, so this only makes sense with no more
+ * 	threads than cores.</li>
+ * </ol>
+ *
+ * (notify() is not benchmarked. It makes no guarantee about which thread it wakes up, so with 4 threads A, B, C and D,
+ * C may wake up B, which goes back to waiting without notifying anyone else. That livelocks.)
+ *
+ * Every operation is one handoff, so the throughput (summed over all threads) is handoffs per unit time. In SampleTime
+ * mode an operation is how long a thread waits for its turn, i.e. one trip around the ring. Divide by the number of
+ * threads to get the latency of a single handoff.
+ *
+ * Threads that are waiting check Control.stopMeasurement, because we don't know which order JMH stops the threads in.
+ * Without that, a thread could wait forever for a turn from a thread that is already in teardown.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment. With 1 thread there is no one to
+ * hand off to, so every operation returns immediately.
+ * 2. Throughput : Higher numbers mean better performance.
+ * 3. SampleTime : Lower numbers mean better performance.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class RoundRobinHandoff {
+	//How long a waiting thread blocks before checking Control.stopMeasurement again.
+	private static final long WAIT_MILLIS = 1;
+
+	/**
+	 * The state shared by all threads in the ring. Not all of it is used by each benchmark.
+	 */
+	@State(Scope.Benchmark)
+	public static class Ring {
+		//The index of the thread whose turn it is. This MUST be volatile, so the value is propagated across all CPUs.
+		volatile int turn = 0;
+		int numThreads;
+
+		//For parkUnpark, so that a thread can unpark the next one.
+		Thread[] threads;
+
+		ReentrantLock lock;
+		Condition[] conditions;
+
+		SynchronousQueue<Object>[] queues;
+		Exchanger<Object>[] exchangers;
+
+		@Setup(Level.Trial)
+		public void setup(ThreadParams threadParams) {
+			numThreads = threadParams.getThreadCount();
+			threads = new Thread[numThreads];
+			lock = new ReentrantLock();
+			conditions = new Condition[numThreads];
+			//Generic arrays can't be created, so create arrays of wildcards and cast them.
+			@SuppressWarnings("unchecked")
+			SynchronousQueue<Object>[] newQueues = (SynchronousQueue<Object>[]) new SynchronousQueue<?>[numThreads];
+			@SuppressWarnings("unchecked")
+			Exchanger<Object>[] newExchangers = (Exchanger<Object>[]) new Exchanger<?>[numThreads];
+			queues = newQueues;
+			exchangers = newExchangers;
+			for(int i = 0; i < numThreads; ++i) {
+				conditions[i] = lock.newCondition();
+				queues[i] = new SynchronousQueue<>();
+				exchangers[i] = new Exchanger<>();
+			}
+		}
+	}
+
+	/**
+	 * A thread's place in the Ring.
+	 */
+	@State(Scope.Thread)
+	public static class Member {
+		int index;
+		int next;
+		//For synchronousQueue and exchanger : the token starts with thread 0, and only the holder may pass it on.
+		Object token;
+
+		@Setup(Level.Trial)
+		public void setup(Ring ring, ThreadParams threadParams) {
+			index = threadParams.getThreadIndex();
+			next = (index + 1) % ring.numThreads;
+			token = index == 0 ? new Object() : null;
+			ring.threads[index] = Thread.currentThread();
+		}
+	}
+
+	@Benchmark
+	public void waitNotifyAll(Ring ring, Member me, Control control) throws InterruptedException {
+		synchronized(ring) {
+			while(!control.stopMeasurement && ring.turn != me.index) {
+				ring.wait(WAIT_MILLIS);
+			}
+			ring.turn = me.next;
+			ring.notifyAll();
+		}
+	}
+
+	@Benchmark
+	public void parkUnpark(Ring ring, Member me, Control control) {
+		while(!control.stopMeasurement && ring.turn != me.index) {
+			//If we were unparked before we got here, this returns immediately.
+			LockSupport.parkNanos(ring, TimeUnit.MILLISECONDS.toNanos(WAIT_MILLIS));
+		}
+		ring.turn = me.next;
+		//The next thread may not have registered itself yet. If so, it will see the turn when it first checks.
+		Thread nextThread = ring.threads[me.next];
+		if(nextThread != null) LockSupport.unpark(nextThread);
+	}
+
+	@Benchmark
+	public void condition(Ring ring, Member me, Control control) throws InterruptedException {
+		ring.lock.lock();
+		try {
+			while(!control.stopMeasurement && ring.turn != me.index) {
+				ring.conditions[me.index].await(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			ring.turn = me.next;
+			ring.conditions[me.next].signal();
+		} finally {
+			ring.lock.unlock();
+		}
+	}
+
+	@Benchmark
+	public void synchronousQueue(Ring ring, Member me, Control control) throws InterruptedException {
+		if(me.next == me.index) return;
+		while(me.token == null && !control.stopMeasurement) {
+			me.token = ring.queues[me.index].poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		//If the next thread doesn't take it (because measurement stopped), we keep the token so it is never lost.
+		while(me.token != null) {
+			if(ring.queues[me.next].offer(me.token, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+				me.token = null;
+			} else if(control.stopMeasurement) {
+				return;
+			}
+		}
+	}
+
+	@Benchmark
+	public void exchanger(Ring ring, Member me, Control control) throws InterruptedException {
+		if(me.next == me.index) return;
+		while(me.token == null && !control.stopMeasurement) {
+			try {
+				me.token = ring.exchangers[me.index].exchange(null, WAIT_MILLIS, TimeUnit.MILLISECONDS);
+			} catch(TimeoutException e) {
+				//Check stopMeasurement and keep waiting.
+			}
+		}
+		while(me.token != null) {
+			try {
+				ring.exchangers[me.next].exchange(me.token, WAIT_MILLIS, TimeUnit.MILLISECONDS);
+				me.token = null;
+			} catch(TimeoutException e) {
+				if(control.stopMeasurement) return;
+			}
+		}
+	}
+
+	@Benchmark
+	public void busySpin(Ring ring, Member me, Control control) {
+		while(!control.stopMeasurement && ring.turn != me.index) {
+			//Intentionally left empty.
+		}
+		ring.turn = me.next;
+	}
+
+}
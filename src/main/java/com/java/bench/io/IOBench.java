@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.bench.util.environ.Environment;
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how quickly a file can be read and written, one block of blockSize bytes per operation, with :
+ * <ol>
+ * 	<li>Stream : FileInputStream / FileOutputStream.</li>
+ * 	<li>BufferedStream : BufferedInputStream / BufferedOutputStream (8 KB buffer) around them. Blocks as big as the
+ * 	buffer go straight through to the file.</li>
+ * 	<li>ChannelHeap : FileChannel with a heap ByteBuffer. The JDK copies it to a temporary direct buffer for the
+ * 	system call.</li>
+ * 	<li>ChannelDirect : FileChannel with a direct ByteBuffer.</li>
+ * 	<li>Mapped : a MappedByteBuffer of the whole file. No system calls at all, but page faults.</li>
+ * 	<li>copyTransferTo vs copyChannelDirect : copy a block from one file to another with FileChannel.transferTo() (which
+ * 	the kernel does without copying into user space, e.g. with sendfile() on Linux), vs reading it into a direct buffer
+ * 	and writing it out.</li>
+ * 	<li>writeChannelForce / writeMappedForce : like a write-ahead log, write blocks and make them durable with
+ * 	FileChannel.force() / MappedByteBuffer.force() (fsync / msync) after every forceEvery blocks.</li>
+ * </ol>
+ *
+ * The files are fileSize bytes, created in java.io.tmpdir and deleted afterwards. Operations go through them from
+ * start to end, and then start again. To benchmark a particular disk, please pass e.g.
+ * -jvmArgsAppend -Djava.io.tmpdir=/mnt/disk
+ * The file is read soon after it is written, so unless fileSize is larger than the free memory, reads come from the
+ * page cache. Without force(), so do writes.
+ *
+ * An operation is one block, so MB/s = (ops/us) * blockSize * 10^6 / 2^20, and SampleTime gives the latency of a block,
+ * with percentiles. To get those directly, please run the main() method. It prints the Environment (where the numbers
+ * came from) and a table of MB/s and p99 latency.
+ *
+ * By default:
+ * 1. This test spawns 1 thread.
+ * 2. Throughput : Higher numbers mean better performance.
+ * 3. SampleTime : Lower numbers mean better performance.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class IOBench {
+
+	@State(Scope.Thread)
+	public static class FileState {
+		//MUST BE a multiple of blockSize
+		@Param({"16777216", "268435456"})
+		int fileSize;
+
+		@Param({"512", "4096", "65536"})
+		int blockSize;
+
+		File inFile;
+		File outFile;
+		RandomAccessFile in;
+		RandomAccessFile out;
+		FileChannel inChannel;
+		FileChannel outChannel;
+		//The streams share the file descriptors (and so the file positions) of in and out.
+		FileInputStream inStream;
+		InputStream bufferedInStream;
+		FileOutputStream outStream;
+		BufferedOutputStream bufferedOutStream;
+		MappedByteBuffer inMapped;
+		MappedByteBuffer outMapped;
+
+		byte[] block;
+		ByteBuffer heapBuffer;
+		ByteBuffer directBuffer;
+		//The offset of the next block
+		long position;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			if(fileSize % blockSize != 0) {
+				throw new IllegalArgumentException("fileSize must be a multiple of blockSize");
+			}
+			block = new byte[blockSize];
+			heapBuffer = ByteBuffer.allocate(blockSize);
+			directBuffer = ByteBuffer.allocateDirect(blockSize);
+
+			//Random bytes, so that nothing along the way can compress them.
+			BenchRandomUtil rng = new BenchRandomUtil(42);
+			byte[] chunk = new byte[1 << 16];
+			for(int i = 0; i < chunk.length; ++i) {
+				chunk[i] = (byte) rng.getNextXorShiftRN();
+			}
+			//The blocks that are written, too.
+			for(int offset = 0; offset < blockSize; offset += chunk.length) {
+				System.arraycopy(chunk, 0, block, offset, Math.min(chunk.length, blockSize - offset));
+			}
+			heapBuffer.put(block);
+			heapBuffer.clear();
+			directBuffer.put(block);
+			directBuffer.clear();
+			inFile = File.createTempFile("javabench-in", ".dat");
+			try(FileOutputStream writer = new FileOutputStream(inFile)) {
+				for(long written = 0; written < fileSize; written += chunk.length) {
+					writer.write(chunk, 0, (int) Math.min(chunk.length, fileSize - written));
+				}
+			}
+			outFile = File.createTempFile("javabench-out", ".dat");
+
+			in = new RandomAccessFile(inFile, "r");
+			inChannel = in.getChannel();
+			inStream = new FileInputStream(in.getFD());
+			bufferedInStream = new BufferedInputStream(inStream);
+			inMapped = inChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+			out = new RandomAccessFile(outFile, "rw");
+			//Allocate the whole file up front, so that writes overwrite rather than extend it.
+			out.setLength(fileSize);
+			outChannel = out.getChannel();
+			outStream = new FileOutputStream(out.getFD());
+			bufferedOutStream = new BufferedOutputStream(outStream);
+			outMapped = outChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			bufferedOutStream.flush();
+			in.close();
+			out.close();
+			inFile.delete();
+			outFile.delete();
+		}
+
+		/**
+		 * @return The offset of the next block, going back to the start of the file after the last block.
+		 */
+		long nextPosition() {
+			long next = position;
+			position = next + blockSize == fileSize ? 0 : next + blockSize;
+			return next;
+		}
+
+		/**
+		 * For the streams, which have their own positions : go back to the start of the files when nextPosition() did.
+		 */
+		void rewindStreamsIfNeeded(boolean buffered) throws IOException {
+			if(nextPosition() != 0) return;
+			if(buffered) {
+				bufferedOutStream.flush();
+				//A BufferedInputStream can't be repositioned, so drop it (not close it : that would close the file).
+				bufferedInStream = new BufferedInputStream(inStream);
+			}
+			inChannel.position(0);
+			outChannel.position(0);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ForceState {
+		//How many blocks are written between two force()s.
+		@Param({"1", "16", "256"})
+		int forceEvery;
+
+		int unforced;
+	}
+
+	private static int readFully(InputStream stream, byte[] block) throws IOException {
+		int read = 0;
+		while(read < block.length) {
+			int n = stream.read(block, read, block.length - read);
+			if(n < 0) break;
+			read += n;
+		}
+		return read;
+	}
+
+	@Benchmark
+	public int readStream(FileState state) throws IOException {
+		state.rewindStreamsIfNeeded(false);
+		return readFully(state.inStream, state.block);
+	}
+
+	@Benchmark
+	public int readBufferedStream(FileState state) throws IOException {
+		state.rewindStreamsIfNeeded(true);
+		return readFully(state.bufferedInStream, state.block);
+	}
+
+	@Benchmark
+	public int readChannelHeap(FileState state) throws IOException {
+		state.heapBuffer.clear();
+		return state.inChannel.read(state.heapBuffer, state.nextPosition());
+	}
+
+	@Benchmark
+	public int readChannelDirect(FileState state) throws IOException {
+		state.directBuffer.clear();
+		return state.inChannel.read(state.directBuffer, state.nextPosition());
+	}
+
+	@Benchmark
+	public byte[] readMapped(FileState state) {
+		state.inMapped.position((int) state.nextPosition());
+		state.inMapped.get(state.block);
+		return state.block;
+	}
+
+	@Benchmark
+	public void writeStream(FileState state) throws IOException {
+		state.rewindStreamsIfNeeded(false);
+		state.outStream.write(state.block);
+	}
+
+	@Benchmark
+	public void writeBufferedStream(FileState state) throws IOException {
+		state.rewindStreamsIfNeeded(true);
+		state.bufferedOutStream.write(state.block);
+	}
+
+	@Benchmark
+	public int writeChannelHeap(FileState state) throws IOException {
+		state.heapBuffer.clear();
+		return state.outChannel.write(state.heapBuffer, state.nextPosition());
+	}
+
+	@Benchmark
+	public int writeChannelDirect(FileState state) throws IOException {
+		state.directBuffer.clear();
+		return state.outChannel.write(state.directBuffer, state.nextPosition());
+	}
+
+	@Benchmark
+	public void writeMapped(FileState state) {
+		state.outMapped.position((int) state.nextPosition());
+		state.outMapped.put(state.block);
+	}
+
+	@Benchmark
+	public long copyTransferTo(FileState state) throws IOException {
+		long position = state.nextPosition();
+		state.outChannel.position(position);
+		return state.inChannel.transferTo(position, state.blockSize, state.outChannel);
+	}
+
+	@Benchmark
+	public int copyChannelDirect(FileState state) throws IOException {
+		long position = state.nextPosition();
+		state.directBuffer.clear();
+		state.inChannel.read(state.directBuffer, position);
+		state.directBuffer.flip();
+		return state.outChannel.write(state.directBuffer, position);
+	}
+
+	@Benchmark
+	public int writeChannelForce(FileState state, ForceState forceState) throws IOException {
+		state.directBuffer.clear();
+		int written = state.outChannel.write(state.directBuffer, state.nextPosition());
+		if(++forceState.unforced == forceState.forceEvery) {
+			//false : the data, but not necessarily the file's metadata (fdatasync)
+			state.outChannel.force(false);
+			forceState.unforced = 0;
+		}
+		return written;
+	}
+
+	@Benchmark
+	public void writeMappedForce(FileState state, ForceState forceState) {
+		state.outMapped.position((int) state.nextPosition());
+		state.outMapped.put(state.block);
+		if(++forceState.unforced == forceState.forceEvery) {
+			state.outMapped.force();
+			forceState.unforced = 0;
+		}
+	}
+
+	/**
+	 * Runs this benchmark, and then prints the Environment and the MB/s and p99 latency of every benchmark. Any other
+	 * JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.io.IOBench -f 1 -wi 3 -i 5 -p fileSize=16777216
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException,
+			InterruptedException {
+		Options opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(IOBench.class.getName() + ".")
+				.build();
+
+		//{MB/s, p99 us} of each benchmark and its params
+		Map<String, double[]> summary = new LinkedHashMap<>();
+		for(RunResult result : new Runner(opts).run()) {
+			String name = result.getParams().getBenchmark();
+			name = name.substring(name.lastIndexOf('.') + 1);
+			int blockSize = Integer.parseInt(result.getParams().getParam("blockSize"));
+			String forceEvery = result.getParams().getParam("forceEvery");
+			String key = String.format("%-22s %10s %10d %10s", name, result.getParams().getParam("fileSize"), blockSize,
+					forceEvery == null ? "" : forceEvery);
+			double[] row = summary.computeIfAbsent(key, k -> new double[] {Double.NaN, Double.NaN});
+			if(result.getParams().getMode() == Mode.Throughput) {
+				row[0] = result.getPrimaryResult().getScore() * blockSize * 1e6 / (1 << 20);
+			} else if(result.getParams().getMode() == Mode.SampleTime) {
+				row[1] = result.getPrimaryResult().getStatistics().getPercentile(99);
+			}
+		}
+
+		System.out.println(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(new Environment()));
+		System.out.println(String.format("%-22s %10s %10s %10s %12s %12s", "Benchmark", "fileSize", "blockSize",
+				"forceEvery", "MB/s", "p99 us"));
+		for(Map.Entry<String, double[]> row : summary.entrySet()) {
+			System.out.println(String.format("%s %12.1f %12.1f", row.getKey(), row.getValue()[0], row.getValue()[1]));
+		}
+	}
+
+}
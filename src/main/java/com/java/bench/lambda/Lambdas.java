@@ -17,10 +17,8 @@
 
 package com.java.bench.lambda;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -36,8 +34,27 @@ import org.openjdk.jmh.annotations.Threads;
 import com.java.bench.util.rng.BenchRandomUtil;
 
 /**
- * This benchmark tests how frequently lambda functions can be called.
- * 
+ * This benchmark tests how frequently lambda functions can be called, compared to the other ways of calling the same
+ * code. Every benchmark applies the same function (x * 31 + 7) to a random number :
+ * <ol>
+ * 	<li>baseline : only generates the random number. Subtract this from the others.</li>
+ * 	<li>directCall : calls a static method.</li>
+ * 	<li>nonCapturingLambda : a lambda that uses nothing but its argument. The JVM creates it only once, so evaluating
+ * 	the lambda expression on every call is free.</li>
+ * 	<li>capturingLambda : a lambda that captures a local variable. Every evaluation is a new object, unless escape
+ * 	analysis gets rid of it.</li>
+ * 	<li>methodReference : a reference to the static method (Lambdas::transform).</li>
+ * 	<li>boundMethodReference : a reference to an instance method of a particular object, which it captures.</li>
+ * 	<li>anonymousClass : a new anonymous IntUnaryOperator on every call.</li>
+ * 	<li>megamorphic : one call site, IntUnaryOperator.applyAsInt(), that sees "implementations" different lambdas (each
+ * 	lambda expression is its own class). With 1 the JIT inlines it, with 2 it inlines both behind a type check, and
+ * 	with 3 or more the call site is megamorphic : no inlining, and every call is an interface (itable) call.</li>
+ * </ol>
+ *
+ * A call site's profile lives as long as the JVM, so in a hot request handler a functional interface is only as cheap
+ * as the number of different lambdas that have EVER been passed through it. JMH forks a new JVM for every value of
+ * implementations, so please don't run megamorphic with -f 0 : the profile of an earlier run would pollute the next.
+ *
  * https://www.youtube.com/watch?v=UKuFqAhDEN4
  *
  * By default:
@@ -58,18 +75,106 @@ public class Lambdas {
 	}
 
 	/**
-	 * TODO : Compare with anonymous classes.
+	 * What capturing lambdas capture. It is not a constant, so that the JIT can't fold it into the lambda.
 	 */
+	@State(Scope.Thread)
+	public static class CaptureState {
+		int offset = 7;
+		Transformer transformer = new Transformer();
+	}
+
+	@State(Scope.Thread)
+	public static class MegamorphicState {
+		//The number of different lambdas that the megamorphic call site sees.
+		@Param({"1", "2", "3", "8"})
+		int implementations;
+
+		//MUST BE 2^n long since we pick from it with a mask.
+		IntUnaryOperator[] operators = new IntUnaryOperator[8];
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			//Each lambda expression compiles to a class of its own.
+			IntUnaryOperator[] lambdas = {
+				x -> x * 31 + 7,
+				x -> x * 31 + 11,
+				x -> x * 31 + 13,
+				x -> x * 31 + 17,
+				x -> x * 31 + 19,
+				x -> x * 31 + 23,
+				x -> x * 31 + 29,
+				x -> x * 31 + 37
+			};
+			for(int i = 0; i < operators.length; ++i) {
+				operators[i] = lambdas[i % implementations];
+			}
+		}
+	}
+
+	static int transform(int x) {
+		return x * 31 + 7;
+	}
+
+	static class Transformer {
+		int offset = 7;
+
+		int transform(int x) {
+			return x * 31 + offset;
+		}
+	}
+
+	@Benchmark
+	public int baseline(RNGState rngState) {
+		return rngState.rng.getNextXorShiftRN();
+	}
+
+	@Benchmark
+	public int directCall(RNGState rngState) {
+		return transform(rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int nonCapturingLambda(RNGState rngState) {
+		IntUnaryOperator operator = x -> x * 31 + 7;
+		return operator.applyAsInt(rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int capturingLambda(RNGState rngState, CaptureState captureState) {
+		int offset = captureState.offset;
+		IntUnaryOperator operator = x -> x * 31 + offset;
+		return operator.applyAsInt(rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int methodReference(RNGState rngState) {
+		IntUnaryOperator operator = Lambdas::transform;
+		return operator.applyAsInt(rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int boundMethodReference(RNGState rngState, CaptureState captureState) {
+		IntUnaryOperator operator = captureState.transformer::transform;
+		return operator.applyAsInt(rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int anonymousClass(RNGState rngState) {
+		IntUnaryOperator operator = new IntUnaryOperator() {
+			@Override
+			public int applyAsInt(int x) {
+				return x * 31 + 7;
+			}
+		};
+		return operator.applyAsInt(rngState.rng.getNextXorShiftRN());
+	}
 
-	/**
-	 *	This benchmark tests how frequently lookups can be done on different Collections.
-	 */
 	@Benchmark
-	public boolean testLambdaCalls(RNGState rngState) {
-		//This is similar to a modulo operation since DATA_SIZE is 2^n - 1
-		//int keyValue = rngState.rng.getNextXorShiftRN() & collectionState.DATA_SIZE;
-		//TODO: Yeah! Actually call a lambda please!
-		return true;
+	public int megamorphic(RNGState rngState, MegamorphicState megamorphicState) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		//Pick a random operator so that the call site sees all the implementations interleaved.
+		return megamorphicState.operators[rn & 7].applyAsInt(rn);
 	}
 
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.latency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs an operation on a number of threads at a fixed total rate, and records how long every operation took into
+ * LatencyRecorders. This is how a service sees load : requests arrive on their own schedule, whether or not the
+ * previous one has finished.
+ *
+ * A benchmark loop that starts the next operation only when the previous one is done (like JMH's SampleTime) stops
+ * sending requests exactly while the system is stalled, so it records one slow operation where a real client would
+ * have seen many. This is "coordinated omission" (Gil Tene, "How NOT to Measure Latency"). To avoid it, operation i of
+ * a thread is scheduled at start + i * interval, and its latency is measured from that intended start. When the
+ * thread falls behind schedule it runs the late operations back to back, and they all include the time they waited.
+ * The latency from the actual start is recorded too ("uncorrected"), to show how much coordinated omission hides.
+ */
+public class FixedRateDriver {
+	//Closer to its intended start than this, a thread spins rather than parks, since parking may oversleep by ~50us.
+	private static final long SPIN_NANOS = 50000;
+
+	private final int threads;
+	private final long opsPerSecond;
+
+	/**
+	 * @param threads The number of threads running the operation.
+	 * @param opsPerSecond The total rate, spread evenly over the threads.
+	 */
+	public FixedRateDriver(int threads, long opsPerSecond) {
+		if(threads < 1 || opsPerSecond < threads) {
+			throw new IllegalArgumentException("Need at least 1 thread and 1 op/s per thread : " + threads + ", "
+					+ opsPerSecond);
+		}
+		this.threads = threads;
+		this.opsPerSecond = opsPerSecond;
+	}
+
+	/**
+	 * The latencies of one run, in nanoseconds.
+	 */
+	public static class Result {
+		//From the intended start of every operation
+		public final LatencyRecorder corrected = new LatencyRecorder();
+		//From the actual start of every operation
+		public final LatencyRecorder uncorrected = new LatencyRecorder();
+		public long elapsedNanos;
+
+		public double achievedOpsPerSecond() {
+			return corrected.getTotalCount() * 1e9 / elapsedNanos;
+		}
+	}
+
+	/**
+	 * Runs operation opsPerSecond * seconds times (rounded down to a multiple of the number of threads), and blocks
+	 * until it is done. Warm the operation up with a first run, and only look at the results of later ones.
+	 */
+	public Result run(Runnable operation, double seconds) throws InterruptedException {
+		final long opsPerThread = (long) (opsPerSecond * seconds) / threads;
+		final long intervalNanos = 1000000000L * threads / opsPerSecond;
+		final Result result = new Result();
+		final List<Result> threadResults = new ArrayList<>();
+		final CountDownLatch ready = new CountDownLatch(threads);
+		final CountDownLatch go = new CountDownLatch(1);
+		final long[] startNanos = new long[1];
+		List<Thread> workers = new ArrayList<>();
+		for(int t = 0; t < threads; ++t) {
+			final Result threadResult = new Result();
+			threadResults.add(threadResult);
+			//Stagger the threads over one interval, so that they don't all fire at once.
+			final long offsetNanos = intervalNanos * t / threads;
+			Thread worker = new Thread(() -> {
+				ready.countDown();
+				try {
+					go.await();
+				} catch(InterruptedException e) {
+					return;
+				}
+				long start = startNanos[0] + offsetNanos;
+				for(long i = 0; i < opsPerThread; ++i) {
+					long intended = start + i * intervalNanos;
+					waitUntil(intended);
+					long actual = System.nanoTime();
+					operation.run();
+					long end = System.nanoTime();
+					threadResult.corrected.record(Math.max(0, end - intended));
+					threadResult.uncorrected.record(end - actual);
+				}
+			}, "FixedRateDriver-" + t);
+			workers.add(worker);
+			worker.start();
+		}
+		ready.await();
+		startNanos[0] = System.nanoTime();
+		//The latch makes startNanos visible to the workers.
+		go.countDown();
+		for(Thread worker : workers) {
+			worker.join();
+		}
+		result.elapsedNanos = System.nanoTime() - startNanos[0];
+		for(Result threadResult : threadResults) {
+			result.corrected.add(threadResult.corrected);
+			result.uncorrected.add(threadResult.uncorrected);
+		}
+		return result;
+	}
+
+	private static void waitUntil(long deadline) {
+		long remaining;
+		while((remaining = deadline - System.nanoTime()) > 0) {
+			//Thread.onSpinWait() would be nicer when spinning, but it needs Java 9.
+			if(remaining > SPIN_NANOS) LockSupport.parkNanos(remaining - SPIN_NANOS);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.latency;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies (or any other non-negative longs), in the style of HdrHistogram
+ * (https://github.com/HdrHistogram/HdrHistogram) : recording a value is an index computation and an increment, it never
+ * allocates, and the memory used doesn't depend on how many values are recorded. So it can be used inside a measurement
+ * loop, and the percentiles it reports are exact up to its precision, unlike an average or a sample.
+ *
+ * Values below 2^precisionBits are counted exactly. Above that, every power of 2 range is split into 2^(precisionBits-1)
+ * buckets of equal width, so a value is reported at most 1/2^(precisionBits-1) too high (e.g. 0.8% for 8 bits).
+ *
+ * This class is <strong>not</strong> thread-safe. Please give every thread its own LatencyRecorder and add() them up.
+ */
+public class LatencyRecorder {
+	public static final int DEFAULT_PRECISION_BITS = 8;
+
+	private final int precisionBits;
+	//The number of exactly counted values, 2^precisionBits
+	private final long linearLimit;
+	//The number of buckets per power of 2 above linearLimit, 2^(precisionBits-1)
+	private final int halfCount;
+	private final long[] counts;
+
+	private long totalCount;
+	private long min = Long.MAX_VALUE;
+	private long max;
+	//The sum of every value, for the mean. Overflows after ~292 years of nanoseconds.
+	private long sum;
+
+	public LatencyRecorder() {
+		this(DEFAULT_PRECISION_BITS);
+	}
+
+	public LatencyRecorder(int precisionBits) {
+		if(precisionBits < 1 || precisionBits > 16) {
+			throw new IllegalArgumentException("precisionBits must be between 1 and 16 : " + precisionBits);
+		}
+		this.precisionBits = precisionBits;
+		linearLimit = 1L << precisionBits;
+		halfCount = 1 << (precisionBits - 1);
+		//A long has 63 value bits, so the highest shift is 63 - precisionBits
+		counts = new long[(int) linearLimit + (63 - precisionBits) * halfCount];
+	}
+
+	private int indexOf(long value) {
+		if(value < linearLimit) return (int) value;
+		int shift = 64 - Long.numberOfLeadingZeros(value) - precisionBits;
+		//value >>> shift has precisionBits bits, the highest one of which is always set.
+		return (int) (linearLimit + (shift - 1) * halfCount + ((value >>> shift) - halfCount));
+	}
+
+	/**
+	 * @return The highest value that is counted in the same bucket as the values of index.
+	 */
+	private long highestValueOf(int index) {
+		if(index < linearLimit) return index;
+		int shift = (int) ((index - linearLimit) / halfCount) + 1;
+		long lowest = (((index - linearLimit) % halfCount) + halfCount) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * @param value MUST NOT be negative. e.g. a latency in nanoseconds
+	 */
+	public void record(long value) {
+		if(value < 0) throw new IllegalArgumentException("Negative value : " + value);
+		counts[indexOf(value)]++;
+		totalCount++;
+		sum += value;
+		if(value < min) min = value;
+		if(value > max) max = value;
+	}
+
+	/**
+	 * Add every value recorded by other to this one. They must have the same precision.
+	 */
+	public void add(LatencyRecorder other) {
+		if(other.precisionBits != precisionBits) {
+			throw new IllegalArgumentException("Different precisions : " + other.precisionBits + " and " + precisionBits);
+		}
+		for(int i = 0; i < counts.length; ++i) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		sum = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	/**
+	 * @param percentile e.g. 99.9
+	 * @return The value that percentile% of the recorded values are at or below (up to the precision, and never more
+	 * than the max), or 0 if nothing was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if(totalCount == 0) return 0;
+		//The rank of the value, counting from 1. At least the first value, even for the 0th percentile.
+		long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+		long seen = 0;
+		for(int i = 0; i < counts.length; ++i) {
+			seen += counts[i];
+			if(seen >= rank) return Math.min(highestValueOf(i), max);
+		}
+		return max;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public long getMin() {
+		return totalCount == 0 ? 0 : min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return totalCount == 0 ? 0 : (double) sum / totalCount;
+	}
+}
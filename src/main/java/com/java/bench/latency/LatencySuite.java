@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.latency;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+import com.java.bench.atomic.Counter;
+import com.java.bench.locks.GuardedConfig;
+import com.java.bench.maps.BoxedIntIntMap;
+import com.java.bench.maps.IntIntMap;
+import com.java.bench.maps.StripedIntIntOpenHashMap;
+
+/**
+ * Most benchmarks here measure throughput, which hides the tail latency : a lock convoy that makes 1 operation in
+ * 1000 take a millisecond barely moves the average. This runner reports latency percentiles in two ways.
+ *
+ * 1. Any of the JMH benchmarks, re-run in SampleTime mode, with p50 / p99 / p99.9 / max in nanoseconds. All options
+ * are passed to JMH, so please select the benchmarks with a regex (otherwise the whole suite runs). e.g.
+ * $ java -cp target/javabench.jar com.java.bench.latency.LatencySuite -f 1 -wi 3 -i 5 "IntrinsicLocking|LockBench"
+ * SampleTime starts the next operation only when the previous one is done, so it suffers from coordinated omission
+ * (please see FixedRateDriver).
+ *
+ * 2. A scenario offered at a fixed rate by FixedRateDriver, with the latency measured from when every operation should
+ * have started. e.g. 1 million operations per second on 4 threads for 10 seconds (after a warm up run of as long) :
+ * $ java -cp target/javabench.jar com.java.bench.latency.LatencySuite fixedRate 1000000 4 10 lock:synchronized
+ * The scenarios are "lock:" + a GuardedConfig lockType (a write with 100 tokens in the critical section), "counter:" + a
+ * Counter counterType and "map:" + ConcurrentHashMap, SynchronizedHashMap or StripedIntIntOpenHashMap (a 50:50 get /
+ * put mix on 8192 keys). Without any, all of DEFAULT_SCENARIOS are run.
+ */
+public final class LatencySuite {
+	static final List<String> DEFAULT_SCENARIOS = Collections.unmodifiableList(Arrays.asList("lock:synchronized",
+			"lock:ReentrantLock", "lock:SpinLock", "counter:AtomicLong", "counter:LongAdder", "map:ConcurrentHashMap",
+			"map:SynchronizedHashMap"));
+
+	private static final double[] PERCENTILES = {50, 99, 99.9};
+
+	private LatencySuite() {
+	}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, InterruptedException {
+		if(args.length > 0 && args[0].equals("fixedRate")) {
+			if(args.length < 4) {
+				System.err.println("Usage : LatencySuite fixedRate <opsPerSecond> <threads> <seconds> [scenario ...]");
+				System.exit(1);
+			}
+			List<String> scenarios = args.length > 4 ? Arrays.asList(args).subList(4, args.length) : DEFAULT_SCENARIOS;
+			runFixedRate(Long.parseLong(args[1]), Integer.parseInt(args[2]), Double.parseDouble(args[3]), scenarios);
+		} else {
+			runSampleTime(args);
+		}
+	}
+
+	private static void runSampleTime(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(cmdOptions);
+		if(cmdOptions.getBenchModes().isEmpty()) builder.mode(Mode.SampleTime);
+		if(!cmdOptions.getTimeUnit().hasValue()) builder.timeUnit(TimeUnit.NANOSECONDS);
+
+		StringBuilder summary = new StringBuilder(String.format("%-100s %12s %12s %12s %12s %s%n", "Benchmark",
+				"p50", "p99", "p99.9", "max", "Units"));
+		for(RunResult result : new Runner(builder.build()).run()) {
+			if(result.getParams().getMode() != Mode.SampleTime) continue;
+			StringBuilder name = new StringBuilder(result.getParams().getBenchmark());
+			for(String key : result.getParams().getParamsKeys()) {
+				name.append(' ').append(key).append('=').append(result.getParams().getParam(key));
+			}
+			Statistics statistics = result.getPrimaryResult().getStatistics();
+			summary.append(String.format("%-100s", name));
+			for(double percentile : PERCENTILES) {
+				summary.append(String.format(" %12.1f", statistics.getPercentile(percentile)));
+			}
+			summary.append(String.format(" %12.1f %s%n", statistics.getMax(), result.getPrimaryResult().getScoreUnit()));
+		}
+		System.out.println(summary);
+	}
+
+	private static void runFixedRate(long opsPerSecond, int threads, double seconds, List<String> scenarios)
+			throws InterruptedException {
+		FixedRateDriver driver = new FixedRateDriver(threads, opsPerSecond);
+		StringBuilder summary = new StringBuilder(String.format("%d ops/s on %d threads for %.1f s. Latencies in us."
+				+ " Uncorrected is from the actual start of an operation, i.e. with coordinated omission.%n",
+				opsPerSecond, threads, seconds));
+		summary.append(String.format("%-28s %12s %10s %10s %10s %10s %14s%n", "Scenario", "ops/s", "p50", "p99",
+				"p99.9", "max", "uncorr. p99.9"));
+		for(String scenario : scenarios) {
+			Runnable operation = newScenario(scenario);
+			//Warm up (JIT, biased locks, resizes...) for as long as the measurement.
+			driver.run(operation, seconds);
+			FixedRateDriver.Result result = driver.run(operation, seconds);
+			LatencyRecorder corrected = result.corrected;
+			summary.append(String.format("%-28s %12.0f", scenario, result.achievedOpsPerSecond()));
+			for(double percentile : PERCENTILES) {
+				summary.append(String.format(" %10.1f", corrected.getValueAtPercentile(percentile) / 1e3));
+			}
+			summary.append(String.format(" %10.1f %14.1f%n", corrected.getMax() / 1e3,
+					result.uncorrected.getValueAtPercentile(99.9) / 1e3));
+		}
+		System.out.println(summary);
+	}
+
+	/**
+	 * @param scenario e.g. "lock:synchronized", "counter:LongAdder", "map:ConcurrentHashMap"
+	 * @return The operation of the scenario. It is run by many threads at the same time.
+	 */
+	static Runnable newScenario(String scenario) {
+		int colon = scenario.indexOf(':');
+		String kind = colon < 0 ? scenario : scenario.substring(0, colon);
+		String type = scenario.substring(colon + 1);
+		if(kind.equals("lock")) {
+			GuardedConfig config = GuardedConfig.newGuardedConfig(type);
+			return () -> config.write(100);
+		} else if(kind.equals("counter")) {
+			Counter counter = Counter.newCounter(type);
+			return counter::increment;
+		} else if(kind.equals("map")) {
+			IntIntMap map = newMap(type, 8192);
+			return () -> {
+				int rn = ThreadLocalRandom.current().nextInt();
+				if(rn < 0) {
+					map.get(rn & 8191);
+				} else {
+					map.put(rn & 8191, rn);
+				}
+			};
+		}
+		throw new IllegalArgumentException("Unknown scenario : " + scenario);
+	}
+
+	private static IntIntMap newMap(String mapType, int size) {
+		IntIntMap map;
+		if(mapType.equals("ConcurrentHashMap")) {
+			map = new BoxedIntIntMap(new ConcurrentHashMap<>(size));
+		} else if(mapType.equals("SynchronizedHashMap")) {
+			map = new BoxedIntIntMap(Collections.synchronizedMap(new HashMap<>(size)));
+		} else if(mapType.equals("StripedIntIntOpenHashMap")) {
+			map = new StripedIntIntOpenHashMap(size, 4 * Runtime.getRuntime().availableProcessors());
+		} else {
+			throw new IllegalArgumentException("Unknown map type : " + mapType);
+		}
+		//Every key present, so that puts only overwrite (like HashMapBench).
+		for(int i = 0; i < size; ++i) {
+			map.put(i, i);
+		}
+		return map;
+	}
+}
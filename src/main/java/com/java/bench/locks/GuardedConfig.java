@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.locks;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A tiny "config object" with two fields that must always be read and written together, guarded by different kinds of
+ * locks. Inside the critical section we burn criticalSectionTokens worth of CPU (Blackhole.consumeCPU) to model the
+ * time the lock is held.
+ *
+ * So far we have :
+ * <ol>
+ * 	<li>synchronized : intrinsic locking, like IntrinsicLocking</li>
+ * 	<li>ReentrantLock : unfair java.util.concurrent.locks.ReentrantLock</li>
+ * 	<li>FairReentrantLock : fair java.util.concurrent.locks.ReentrantLock</li>
+ * 	<li>ReentrantReadWriteLock : readers share the (unfair) read lock</li>
+ * 	<li>StampedLock : readers first try an optimistic read, and only take the read lock if a writer got in the way</li>
+ * 	<li>SpinLock : a test-and-test-and-set spin lock</li>
+ * </ol>
+ */
+public abstract class GuardedConfig {
+	//Both fields are always incremented together, so a consistent reader always sees them equal.
+	long version1;
+	long version2;
+
+	/**
+	 * Read both fields under the lock.
+	 * @return The sum of the two fields, so that the reads can't be optimized away.
+	 */
+	public abstract long read(int criticalSectionTokens);
+
+	/**
+	 * Update both fields under the lock.
+	 */
+	public abstract void write(int criticalSectionTokens);
+
+	long readUnguarded(int criticalSectionTokens) {
+		long sum = version1 + version2;
+		Blackhole.consumeCPU(criticalSectionTokens);
+		return sum;
+	}
+
+	void writeUnguarded(int criticalSectionTokens) {
+		version1++;
+		version2++;
+		Blackhole.consumeCPU(criticalSectionTokens);
+	}
+
+	public static GuardedConfig newGuardedConfig(String lockType) {
+		if(lockType.equals("synchronized")) {
+			return new SynchronizedConfig();
+		} else if(lockType.equals("ReentrantLock")) {
+			return new ReentrantLockConfig(false);
+		} else if(lockType.equals("FairReentrantLock")) {
+			return new ReentrantLockConfig(true);
+		} else if(lockType.equals("ReentrantReadWriteLock")) {
+			return new ReadWriteLockConfig();
+		} else if(lockType.equals("StampedLock")) {
+			return new StampedLockConfig();
+		} else if(lockType.equals("SpinLock")) {
+			return new SpinLockConfig();
+		}
+		throw new IllegalArgumentException("Unknown lock type : " + lockType);
+	}
+
+	static class SynchronizedConfig extends GuardedConfig {
+		@Override
+		public synchronized long read(int criticalSectionTokens) {
+			return readUnguarded(criticalSectionTokens);
+		}
+
+		@Override
+		public synchronized void write(int criticalSectionTokens) {
+			writeUnguarded(criticalSectionTokens);
+		}
+	}
+
+	static class ReentrantLockConfig extends GuardedConfig {
+		private final ReentrantLock lock;
+
+		ReentrantLockConfig(boolean fair) {
+			lock = new ReentrantLock(fair);
+		}
+
+		@Override
+		public long read(int criticalSectionTokens) {
+			lock.lock();
+			try {
+				return readUnguarded(criticalSectionTokens);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public void write(int criticalSectionTokens) {
+			lock.lock();
+			try {
+				writeUnguarded(criticalSectionTokens);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	static class ReadWriteLockConfig extends GuardedConfig {
+		private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+		@Override
+		public long read(int criticalSectionTokens) {
+			lock.readLock().lock();
+			try {
+				return readUnguarded(criticalSectionTokens);
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public void write(int criticalSectionTokens) {
+			lock.writeLock().lock();
+			try {
+				writeUnguarded(criticalSectionTokens);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	static class StampedLockConfig extends GuardedConfig {
+		private final StampedLock lock = new StampedLock();
+
+		@Override
+		public long read(int criticalSectionTokens) {
+			long stamp = lock.tryOptimisticRead();
+			long sum = readUnguarded(criticalSectionTokens);
+			if(lock.validate(stamp)) return sum;
+
+			//A writer got in the way. Fall back to a real read lock.
+			stamp = lock.readLock();
+			try {
+				return readUnguarded(criticalSectionTokens);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+
+		@Override
+		public void write(int criticalSectionTokens) {
+			long stamp = lock.writeLock();
+			try {
+				writeUnguarded(criticalSectionTokens);
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+	}
+
+	static class SpinLockConfig extends GuardedConfig {
+		private final SpinLock lock = new SpinLock();
+
+		@Override
+		public long read(int criticalSectionTokens) {
+			lock.lock();
+			try {
+				return readUnguarded(criticalSectionTokens);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public void write(int criticalSectionTokens) {
+			lock.lock();
+			try {
+				writeUnguarded(criticalSectionTokens);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.locks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how frequently a read-mostly object can be read and written when it is guarded by different
+ * kinds of locks. Please see GuardedConfig for the list of locks. Unlike IntrinsicLocking, the critical section is not
+ * empty : it is criticalSectionTokens of Blackhole.consumeCPU().
+ *
+ * readPercent of the operations are reads and the rest are writes. We use XORshift to pick which.
+ *
+ * To get a scaling curve, please run with different numbers of threads, e.g. -t 1, -t 2, -t 4 ...
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class LockBench {
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	@State(Scope.Benchmark)
+	public static class LockState {
+		@Param({"synchronized", "ReentrantLock", "FairReentrantLock", "ReentrantReadWriteLock", "StampedLock", "SpinLock"})
+		String lockType;
+
+		//How long the lock is held, in Blackhole.consumeCPU tokens
+		@Param({"0", "10", "100"})
+		int criticalSectionTokens;
+
+		@Param({"0", "90", "100"})
+		int readPercent;
+
+		GuardedConfig config;
+		//readPercent out of 1024, to be compared with 10 random bits
+		int readThreshold;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			config = GuardedConfig.newGuardedConfig(lockType);
+			readThreshold = readPercent * 1024 / 100;
+		}
+	}
+
+	@Benchmark
+	public long readOrWrite(LockState lockState, RNGState rngState) {
+		if((rngState.rng.getNextXorShiftRN() >>> 22) < lockState.readThreshold) {
+			return lockState.config.read(lockState.criticalSectionTokens);
+		}
+		lockState.config.write(lockState.criticalSectionTokens);
+		return 0;
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.locks;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A test-and-test-and-set spin lock (https://en.wikipedia.org/wiki/Test_and_test-and-set). Threads that can't get the
+ * lock never park, they just keep spinning on the CPU. It is not reentrant and not fair.
+ */
+public class SpinLock {
+	private final AtomicBoolean locked = new AtomicBoolean();
+
+	public void lock() {
+		while(true) {
+			//Spin on a plain read, so that waiting threads don't keep bouncing the cache line around with failed CASes.
+			while(locked.get()) {
+				//Intentionally left empty.
+			}
+			if(locked.compareAndSet(false, true)) return;
+		}
+	}
+
+	public void unlock() {
+		locked.set(false);
+	}
+}
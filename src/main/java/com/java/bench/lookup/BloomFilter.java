@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.lookup;
+
+/**
+ * A Bloom filter of ints (https://en.wikipedia.org/wiki/Bloom_filter). mightContain() is never wrong about a key that
+ * was added, and wrong about roughly (1/2)^numHashes of the keys that weren't. It is meant to go in front of a more
+ * expensive set, so that most misses never get to it.
+ *
+ * The numHashes bit positions are derived from one 64 bit hash of the key (Kirsch and Mitzenmacher's double hashing),
+ * and the number of bits is rounded up to a power of 2 so that we can AND instead of doing a modulo.
+ */
+public class BloomFilter {
+	private final long[] bits;
+	//Number of bits - 1
+	private final long mask;
+	private final int numHashes;
+
+	/**
+	 * @param bitsPerKey 10 gives a false positive rate of about 1%, each extra 5 divides it by about 10.
+	 */
+	public BloomFilter(int expectedKeys, int bitsPerKey) {
+		long numBits = Long.highestOneBit(Math.max((long) expectedKeys * bitsPerKey, 64) - 1) << 1;
+		bits = new long[(int) (numBits >>> 6)];
+		mask = numBits - 1;
+		//The optimal number of hashes is ln(2) * bits per key
+		numHashes = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+	}
+
+	public void add(int key) {
+		long hash = hash(key);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 0; i < numHashes; ++i) {
+			long bit = (h1 + i * h2) & mask;
+			bits[(int) (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	public boolean mightContain(int key) {
+		long hash = hash(key);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 0; i < numHashes; ++i) {
+			long bit = (h1 + i * h2) & mask;
+			if((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * MurmurHash3's 64 bit finalizer, so that every bit of the key affects every bit of the hash.
+	 */
+	private static long hash(int key) {
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.lookup;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how frequently lookups can be done on a set drawn from a small domain, e.g. "is this opcode
+ * allowed?". The domain is an enum of 32 constants and the set holds every other one of them, so half of the lookups
+ * miss. An EnumSet is a single long for up to 64 constants, so a lookup is a bit test. It is compared against a HashSet,
+ * an unmodifiable HashSet and a boolean[] indexed by ordinal().
+ *
+ * By default:
+ * 1. This test spawns only 1 thread.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class EnumLookup {
+
+	public enum Opcode {
+		OP00, OP01, OP02, OP03, OP04, OP05, OP06, OP07, OP08, OP09, OP10, OP11, OP12, OP13, OP14, OP15,
+		OP16, OP17, OP18, OP19, OP20, OP21, OP22, OP23, OP24, OP25, OP26, OP27, OP28, OP29, OP30, OP31
+	}
+
+	//Opcode.values() clones the array every time. MUST have 2^n elements since our modulo operation depends on it.
+	static final Opcode[] OPCODES = Opcode.values();
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+
+		Opcode nextOpcode() {
+			return OPCODES[rng.getNextXorShiftRN() & (OPCODES.length - 1)];
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SetState {
+		@Param({"EnumSet", "HashSet", "UnmodifiableHashSet"})
+		String setType;
+
+		Set<Opcode> allowed;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			if(setType.equals("EnumSet")) {
+				allowed = EnumSet.noneOf(Opcode.class);
+			} else if(setType.equals("HashSet") || setType.equals("UnmodifiableHashSet")) {
+				allowed = new HashSet<>();
+			} else {
+				throw new IllegalArgumentException("Unknown set type : " + setType);
+			}
+			for(Opcode opcode : OPCODES) {
+				if((opcode.ordinal() & 1) == 0) allowed.add(opcode);
+			}
+			if(setType.equals("UnmodifiableHashSet")) {
+				allowed = Collections.unmodifiableSet(allowed);
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ArrayState {
+		boolean[] allowed = new boolean[OPCODES.length];
+
+		@Setup(Level.Trial)
+		public void setup() {
+			for(Opcode opcode : OPCODES) {
+				allowed[opcode.ordinal()] = (opcode.ordinal() & 1) == 0;
+			}
+		}
+	}
+
+	/**
+	 *	The cost of picking an Opcode, to subtract from the other results.
+	 */
+	@Benchmark
+	public Opcode baseline(RNGState rngState) {
+		return rngState.nextOpcode();
+	}
+
+	@Benchmark
+	public boolean setContains(SetState setState, RNGState rngState) {
+		return setState.allowed.contains(rngState.nextOpcode());
+	}
+
+	@Benchmark
+	public boolean booleanArray(ArrayState arrayState, RNGState rngState) {
+		return arrayState.allowed[rngState.nextOpcode().ordinal()];
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.lookup;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+import com.java.bench.maps.IntOpenHashSet;
+
+/**
+ * A read-only set of int keys, built once and then only asked contains(). This is what an allow-list looks like. The
+ * different implementations are created by newLookup().
+ */
+public abstract class IntLookup {
+
+	public abstract boolean contains(int key);
+
+	/**
+	 * @param type The type of the lookup structure, e.g. "HashSet", "SortedIntArray", "BloomFilterHashSet", or "SetOf"
+	 * when built with JDK9+ (the java9 profile in pom.xml).
+	 * @param keys The keys in the set. They must not be negative (because of BitSet).
+	 */
+	public static IntLookup newLookup(String type, int[] keys) {
+		if(type.equals("HashSet")) {
+			//The default load factor. Please see MapScalingBench for others.
+			return new CollectionLookup(new HashSet<>(keys.length), keys);
+		} else if(type.equals("ArrayList")) {
+			return new CollectionLookup(new ArrayList<>(keys.length), keys);
+		} else if(type.equals("TreeSet")) {
+			return new CollectionLookup(new TreeSet<>(), keys);
+		} else if(type.equals("SetOf")) {
+			//Compiled from src/main/java9, so it isn't there when built with JDK8.
+			try {
+				Constructor<?> constructor = Class.forName(IntLookup.class.getPackage().getName() + ".SetOfLookup")
+						.getConstructor(int[].class);
+				return (IntLookup) constructor.newInstance((Object) keys);
+			} catch(ClassNotFoundException e) {
+				throw new UnsupportedOperationException(type + " needs to be built with JDK9 or later", e);
+			} catch(ReflectiveOperationException e) {
+				throw new IllegalStateException("Couldn't create a " + type, e);
+			}
+		} else if(type.equals("SortedIntArray")) {
+			return new SortedIntArrayLookup(keys);
+		} else if(type.equals("BitSet")) {
+			return new BitSetLookup(keys);
+		} else if(type.equals("IntOpenHashSet")) {
+			return new IntOpenHashSetLookup(keys);
+		} else if(type.equals("BloomFilterHashSet")) {
+			return new BloomFilterLookup(new CollectionLookup(new HashSet<>(keys.length), keys), keys);
+		}
+		throw new IllegalArgumentException("Unknown lookup type : " + type);
+	}
+
+	/**
+	 * Boxes every key that is looked up, like the callers of a Collection<Integer> would.
+	 */
+	static class CollectionLookup extends IntLookup {
+		private final Collection<Integer> data;
+
+		CollectionLookup(Collection<Integer> data, int[] keys) {
+			for(int key : keys) {
+				data.add(key);
+			}
+			this.data = data;
+		}
+
+		@Override
+		public boolean contains(int key) {
+			return data.contains(key);
+		}
+	}
+
+	/**
+	 * log2(n) comparisons, but the array is compact and there is no boxing.
+	 */
+	static class SortedIntArrayLookup extends IntLookup {
+		private final int[] sorted;
+
+		SortedIntArrayLookup(int[] keys) {
+			sorted = keys.clone();
+			Arrays.sort(sorted);
+		}
+
+		@Override
+		public boolean contains(int key) {
+			return Arrays.binarySearch(sorted, key) >= 0;
+		}
+	}
+
+	/**
+	 * Direct addressing : the key is the index of its bit, a trivially perfect hash. One bit per possible key, so this
+	 * only makes sense when the key-range is dense.
+	 */
+	static class BitSetLookup extends IntLookup {
+		private final BitSet bits = new BitSet();
+
+		BitSetLookup(int[] keys) {
+			for(int key : keys) {
+				bits.set(key);
+			}
+		}
+
+		@Override
+		public boolean contains(int key) {
+			return bits.get(key);
+		}
+	}
+
+	static class IntOpenHashSetLookup extends IntLookup {
+		private final IntOpenHashSet set;
+
+		IntOpenHashSetLookup(int[] keys) {
+			set = new IntOpenHashSet(keys.length);
+			for(int key : keys) {
+				set.add(key);
+			}
+		}
+
+		@Override
+		public boolean contains(int key) {
+			return set.contains(key);
+		}
+	}
+
+	/**
+	 * Asks a BloomFilter before the real set, so that most misses are answered without touching it.
+	 */
+	static class BloomFilterLookup extends IntLookup {
+		//About 1% false positives
+		private static final int BITS_PER_KEY = 10;
+
+		private final BloomFilter bloomFilter;
+		private final IntLookup lookup;
+
+		BloomFilterLookup(IntLookup lookup, int[] keys) {
+			bloomFilter = new BloomFilter(keys.length, BITS_PER_KEY);
+			for(int key : keys) {
+				bloomFilter.add(key);
+			}
+			this.lookup = lookup;
+		}
+
+		@Override
+		public boolean contains(int key) {
+			return bloomFilter.mightContain(key) && lookup.contains(key);
+		}
+	}
+}
@@ -17,9 +17,6 @@
 
 package com.java.bench.lookup;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
 import java.util.concurrent.TimeUnit;
 
 import org.openjdk.jmh.annotations.Benchmark;
@@ -34,11 +31,20 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 
 import com.java.bench.util.rng.BenchRandomUtil;
+import com.java.bench.util.rng.KeyDistribution;
 
 /**
- * This benchmark tests how frequently lookup operations can be handled by a HashSet and an ArrayList.
+ * This benchmark tests how frequently lookup operations can be handled by different read-only sets of ints : a HashSet,
+ * an ArrayList, a TreeSet, Set.of() (when built with JDK9+), binary search on a sorted int[], a BitSet, a primitive open
+ * addressing set and a HashSet behind a Bloom filter. Please see IntLookup for the implementations, and EnumLookup for small enum domains.
  *
- * We use XORshift to somewhat pseudo-randomize the access pattern.
+ * The set holds the even numbers 0, 2, ... 2*DATA_SIZE. A lookup picks one of them, and then looks up the odd number
+ * right after it instead in (100 - hitPercent)% of the cases. So a miss costs the same to generate as a hit, and always
+ * falls inside the range of the set (i.e. it can't be answered by a range check). Allow-lists mostly see misses, so
+ * please don't just look at hitPercent=100.
+ *
+ * We use XORshift to somewhat pseudo-randomize the access pattern. The keys may be spread uniformly or skewed (please see
+ * the keyDistribution param).
  *
  * By default:
  * 1. This test spawns only 1 thread.
@@ -55,6 +61,33 @@ public class Lookup {
 		 * because it is used in the measurement loop.
 		 */
 		BenchRandomUtil rng = new BenchRandomUtil();
+
+		/** How the keys are spread over the key-range. Please see KeyDistribution. Parameters may be passed in the
+		 * name, e.g. -p keyDistribution=hotspot-99-1
+		 */
+		@Param({"uniform", "zipfian", "hotspot", "sequential"})
+		String keyDistribution;
+
+		KeyDistribution keys;
+
+		//The percentage of lookups that find their key.
+		@Param({"100", "50", "10"})
+		int hitPercent;
+
+		//hitPercent out of 1024 instead of 100, so that it can be compared to 10 random bits.
+		int hitThreshold;
+
+		@Setup(Level.Trial)
+		public void setup(CollectionState collectionState) {
+			keys = KeyDistribution.newDistribution(keyDistribution, collectionState.DATA_SIZE, rng);
+			hitThreshold = hitPercent * 1024 / 100;
+		}
+
+		int nextKey() {
+			int key = keys.nextKey() << 1;
+			//The top 10 bits of the random number are in [0, 1023]
+			return ((rng.getNextXorShiftRN() >>> 22) < hitThreshold) ? key : key | 1;
+		}
 	}
 
 	@State(Scope.Benchmark)
@@ -63,38 +96,33 @@ public class Lookup {
 		@Param({"255", "8191", "16383", "32767"})
 		int DATA_SIZE;
 
-		@Param({"HashSet", "ArrayList"})
+		//"SetOf" is left out, since it needs a build with JDK9+. To add it, please pass e.g. -p dataType=HashSet,SetOf
+		@Param({"HashSet", "ArrayList", "TreeSet", "SortedIntArray", "BitSet", "IntOpenHashSet", "BloomFilterHashSet"})
 		String dataType;
 
-		/** This is the Collection that is exercised. Depending on dataType it is initialized to different instances.
-		 * The value type is Integer because that is most likely the word size.
+		/** This is the set that is exercised. Depending on dataType it is initialized to different instances. The
+		 * Collection based ones box the key, because that is what their callers would do.
 		 */
-		Collection<Integer> data;
+		IntLookup data;
 
 		//Run the setup only once for all iterations of the benchmark.
 		@Setup(Level.Trial)
 		public void setup() {
-			//TODO: We are not specifying LOAD_FACTOR. Maybe we should?
-			if(dataType.equals("HashSet")) {
-				data = new HashSet<>(DATA_SIZE);
-			} else if(dataType.equals("ArrayList")) {
-				data = new ArrayList<>(DATA_SIZE);
-			}
-
-			//We'll seed the collection with numbers so that Collection.contains() actually does work.
-			for(int i=0; i<DATA_SIZE; ++i) {
-				data.add(i);
+			//The even numbers in [0, 2*DATA_SIZE], so that the odd numbers in between are misses.
+			int[] keys = new int[DATA_SIZE + 1];
+			for(int i=0; i<keys.length; ++i) {
+				keys[i] = i << 1;
 			}
+			data = IntLookup.newLookup(dataType, keys);
 		}
 	}
 
 	/**
-	 *	This benchmark tests how frequently lookups can be done on different Collections.
+	 *	This benchmark tests how frequently lookups can be done on different sets.
 	 */
 	@Benchmark
 	public boolean testCollectionContains(CollectionState collectionState, RNGState rngState) {
-		//This is similar to a modulo operation since DATA_SIZE is 2^n - 1
-		int keyValue = rngState.rng.getNextXorShiftRN() & collectionState.DATA_SIZE;
+		int keyValue = rngState.nextKey();
 		return collectionState.data.contains(keyValue);
 	}
 
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.lookup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+
+import com.java.bench.util.SizeSweep;
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how lookups slow down as the sets grow beyond the caches. It works like Lookup with uniformly
+ * spread keys, please see there for the set implementations and hitPercent. ArrayList (a linear scan) is left out,
+ * because it would take hours at these sizes.
+ *
+ * Please run the main() method to sweep DATA_SIZE from 2^10-1 to 2^24-1 and get a table of the results, printed under
+ * the cache sizes of the machine. A HashSet of 2^24 Integers takes about 1GB of heap, so every fork gets -Xmx6g.
+ *
+ * By default:
+ * 1. This test spawns only 1 thread.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(jvmArgsAppend = "-Xmx6g")
+public class LookupScalingBench {
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+
+		//The percentage of lookups that find their key.
+		@Param({"100", "10"})
+		int hitPercent;
+
+		//hitPercent out of 1024 instead of 100, so that it can be compared to 10 random bits.
+		int hitThreshold;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			hitThreshold = hitPercent * 1024 / 100;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SetState {
+		//The number of keys - 1. MUST BE 2^n-1 since our modulo operation depends on it.
+		@Param({"65535", "1048575", "16777215"})
+		int DATA_SIZE;
+
+		@Param({"HashSet", "TreeSet", "SortedIntArray", "BitSet", "IntOpenHashSet", "BloomFilterHashSet"})
+		String dataType;
+
+		IntLookup data;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			//The even numbers in [0, 2*DATA_SIZE], like Lookup.
+			int[] keys = new int[DATA_SIZE + 1];
+			for(int i=0; i<keys.length; ++i) {
+				keys[i] = i << 1;
+			}
+			data = IntLookup.newLookup(dataType, keys);
+		}
+	}
+
+	@Benchmark
+	public boolean contains(SetState setState, RNGState rngState) {
+		int key = (rngState.rng.getNextXorShiftRN() & setState.DATA_SIZE) << 1;
+		//The top 10 bits of the next random number are in [0, 1023]
+		return setState.data.contains(((rngState.rng.getNextXorShiftRN() >>> 22) < rngState.hitThreshold) ? key : key | 1);
+	}
+
+	/**
+	 * Runs this benchmark for every DATA_SIZE of SizeSweep (unless -p DATA_SIZE=... is passed), and prints a table of
+	 * ops/s by size. Any other JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.lookup.LookupScalingBench -f 1 -wi 3 -i 5 -p hitPercent=10
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException,
+			InterruptedException {
+		//An int per key, in the SortedIntArray
+		SizeSweep.run(LookupScalingBench.class, "DATA_SIZE", 4, args);
+	}
+
+}
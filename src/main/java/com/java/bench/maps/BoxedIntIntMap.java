@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Exposes a java.util.Map&lt;Integer, Integer&gt; as an IntIntMap. The keys and values are boxed on the way in and
+ * unboxed on the way out, exactly like they would be in code that uses the Map directly.
+ */
+public class BoxedIntIntMap implements IntIntMap {
+	private final Map<Integer, Integer> map;
+	//The last mapping function passed to computeIfAbsent(), boxed. Cached so that we don't allocate one per call.
+	private BoxedFunction lastFunction;
+
+	/**
+	 * Immutable, so it is safe to share lastFunction between threads without synchronization. At worst two threads
+	 * both box the same function.
+	 */
+	private static final class BoxedFunction implements Function<Integer, Integer> {
+		final IntUnaryOperator function;
+
+		BoxedFunction(IntUnaryOperator function) {
+			this.function = function;
+		}
+
+		@Override
+		public Integer apply(Integer key) {
+			return function.applyAsInt(key);
+		}
+	}
+
+	public BoxedIntIntMap(Map<Integer, Integer> map) {
+		this.map = map;
+	}
+
+	@Override
+	public int get(int key) {
+		Integer value = map.get(key);
+		return value == null ? NO_VALUE : value;
+	}
+
+	@Override
+	public int put(int key, int value) {
+		Integer previous = map.put(key, value);
+		return previous == null ? NO_VALUE : previous;
+	}
+
+	@Override
+	public int remove(int key) {
+		Integer previous = map.remove(key);
+		return previous == null ? NO_VALUE : previous;
+	}
+
+	@Override
+	public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+		BoxedFunction boxed = lastFunction;
+		if(boxed == null || boxed.function != mappingFunction) {
+			boxed = new BoxedFunction(mappingFunction);
+			lastFunction = boxed;
+		}
+		return map.computeIfAbsent(key, boxed);
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+}
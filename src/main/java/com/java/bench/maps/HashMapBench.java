@@ -19,7 +19,6 @@ package com.java.bench.maps;
 
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -34,19 +33,32 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import com.java.bench.util.rng.BenchRandomUtil;
+import com.java.bench.util.rng.KeyDistribution;
 
 /**
  * This benchmark tests how frequently operations can be handled by a HashMap.
- * There are currently two HashMaps : java.util.concurrent.ConcurrentHashMap and synchronizedMap(HashMap).
+ * There are currently two boxed HashMaps : java.util.concurrent.ConcurrentHashMap and synchronizedMap(HashMap).
+ * To see how much the boxing and pointer chasing costs, they are compared with two primitive int to int maps :
+ * IntIntOpenHashMap and StripedIntIntOpenHashMap.
  *
- * We use XORshift to somewhat pseudo-randomize the access pattern. So multiple threads will still have some conflict.
+ * We use XORshift to somewhat pseudo-randomize the access pattern. The keys may be spread uniformly or skewed (please see
+ * the keyDistribution param). So multiple threads will still have some conflict.
  * We are *not* advising the ConcurrentHashMap on concurrencyLevel.
  *
  * By default:
  * 1. This test spawns as many threads as there are cores in the test environment.
  * 2. Higher numbers mean better performance.
+ *
+ * Please run the main() method to get the allocation rate (from the GC profiler) alongside the throughput.
  */
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.SECONDS)
@@ -58,6 +70,19 @@ public class HashMapBench {
 		 * because it is used in the measurement loop.
 		 */
 		BenchRandomUtil rng = new BenchRandomUtil();
+
+		/** How the keys are spread over the key-range. Please see KeyDistribution. Parameters may be passed in the
+		 * name, e.g. -p keyDistribution=hotspot-99-1
+		 */
+		@Param({"uniform", "zipfian", "hotspot", "sequential"})
+		String keyDistribution;
+
+		KeyDistribution keys;
+
+		@Setup(Level.Trial)
+		public void setup(MapState mapState) {
+			keys = KeyDistribution.newDistribution(keyDistribution, mapState.HASH_MAP_SIZE, rng);
+		}
 	}
 
 	@State(Scope.Benchmark)
@@ -66,28 +91,38 @@ public class HashMapBench {
 		@Param({"255", "8191", "32767"})
 		int HASH_MAP_SIZE;
 
-		@Param({"ConcurrentHashMap", "SynchronizedHashMap"})
+		/** IntIntOpenHashMap is not thread-safe. It is still safe to benchmark here because the map is seeded with
+		 * every key in the key-range [0, HASH_MAP_SIZE], so puts only overwrite values and never change the structure
+		 * of the map. Think of it as the lower bound for a map that is owned by a single thread.
+		 */
+		@Param({"ConcurrentHashMap", "SynchronizedHashMap", "IntIntOpenHashMap", "StripedIntIntOpenHashMap"})
 		String mapType;
 
 		/** This is the HashMap that is exercised. Depending on mapType it is initialized to different instances.
-		 * The key value pairs are Integer because that is most likely the word size.
+		 * The key value pairs are int because that is most likely the word size. The java.util.Maps box them.
 		 */
-		Map<Integer, Integer> map;
+		IntIntMap map;
 
 		//Run the setup only once for all iterations of the benchmark.
 		@Setup(Level.Trial)
 		public void setup() {
-			//TODO: We are not specifying LOAD_FACTOR. Maybe we should?
+			//The default load factors. Please see MapScalingBench for others, and for maps beyond the caches.
 			if(mapType.equals("ConcurrentHashMap")) {
 				// TODO : Ideally there should be another benchmark that tests the improvement when we also inform CHM about concurrencyLevel.
 				// However its not really prevalent to specify, so we'll do it later.
-				map = new ConcurrentHashMap<>(HASH_MAP_SIZE);
+				map = new BoxedIntIntMap(new ConcurrentHashMap<>(HASH_MAP_SIZE));
 			} else if(mapType.equals("SynchronizedHashMap")) {
-				map = Collections.synchronizedMap(new HashMap<>(HASH_MAP_SIZE));
+				map = new BoxedIntIntMap(Collections.synchronizedMap(new HashMap<>(HASH_MAP_SIZE)));
+			} else if(mapType.equals("IntIntOpenHashMap")) {
+				map = new IntIntOpenHashMap(HASH_MAP_SIZE);
+			} else if(mapType.equals("StripedIntIntOpenHashMap")) {
+				//4 stripes per core, so that threads rarely land on the same stripe.
+				map = new StripedIntIntOpenHashMap(HASH_MAP_SIZE, 4 * Runtime.getRuntime().availableProcessors());
 			}
 
-			//We'll seed the HashMap with HASH_MAP_SIZE keys so that HashMap.gets actually return data.
-			for(int i=0; i<HASH_MAP_SIZE; ++i) {
+			//We'll seed the HashMap with every key in [0, HASH_MAP_SIZE] so that HashMap.gets actually return data.
+			//The keys include HASH_MAP_SIZE itself, and puts must never insert (please see mapType).
+			for(int i=0; i<=HASH_MAP_SIZE; ++i) {
 				map.put(i, i);
 			}
 		}
@@ -95,24 +130,36 @@ public class HashMapBench {
 
 	/**
 	 *	This benchmark tests how frequently key-value pairs can be added to a HashMap.
-	 *	TODO: Consider using JMH Groups (JMHSample_15_Asymmetric) if we should have a mix of gets and puts simultaneously
+	 *	Please see HashMapMixedBench for a mix of gets, puts and removes at the same time.
 	 */
 	@Benchmark
 	public void testMapPut(MapState mapState, RNGState rngState) {
-		//This is similar to a modulo operation since HASH_MAP_SIZE is 2^n - 1
-		int keyValue = rngState.rng.getNextXorShiftRN() & mapState.HASH_MAP_SIZE;
+		int keyValue = rngState.keys.nextKey();
 		mapState.map.put(keyValue, keyValue);
 	}
 
 	/**
 	 *	This benchmark tests how frequently values can be retrieved from a HashMap given a key.
-	 *	TODO: Consider using JMH Groups (JMHSample_15_Asymmetric) if we should have a mix of gets and puts simultaneously
+	 *	Please see HashMapMixedBench for a mix of gets, puts and removes at the same time.
 	 */
 	@Benchmark
 	public void testMapGet(MapState mapState, RNGState rngState, Blackhole bh) {
-		//This is similar to a modulo operation since HASH_MAP_SIZE is 2^n - 1
-		int keyValue = rngState.rng.getNextXorShiftRN() & mapState.HASH_MAP_SIZE;
+		int keyValue = rngState.keys.nextKey();
 		bh.consume(mapState.map.get(keyValue));
 	}
 
+	/**
+	 * Runs this benchmark with the GC profiler, so that the allocation rate (gc.alloc.rate.norm is bytes per
+	 * operation) is reported next to the throughput of each map. Any other JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.maps.HashMapBench -f 1
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(HashMapBench.class.getName() + ".")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(opts).run();
+	}
+
 }
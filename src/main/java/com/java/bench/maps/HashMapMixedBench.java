@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how HashMaps hold up when gets, puts, removes and computeIfAbsents happen at the same time.
+ * HashMapBench has every thread doing 100% gets or 100% puts, which matches no real workload.
+ *
+ * There are two kinds of benchmarks in here :
+ * <ol>
+ * 	<li>The "asymmetric" JMH group (JMHSample_15_Asymmetric). Each thread in the group does only one kind of operation,
+ * 	so JMH reports the throughput and latency of gets, puts, removes and computeIfAbsents separately. By default there
+ * 	are 4 reader threads for each writer thread of each kind. To change that (e.g. 18 readers, 1 putter, 1 remover
+ * 	and 1 computeIfAbsent-er), please pass "-tg 1,18,1,1". JMH orders the counts alphabetically by method name :
+ * 	computeIfAbsent, get, put, remove.</li>
+ * 	<li>mixedOps : every thread does a mix of operations. readPercent of them are gets, and the rest are split evenly
+ * 	between puts, removes and computeIfAbsents.</li>
+ * </ol>
+ *
+ * Since removes change the structure of the map, the (not thread-safe) IntIntOpenHashMap is not benchmarked here.
+ *
+ * By default:
+ * 1. The group benchmark spawns one group of 7 threads per 7 cores, rounded up (JMH rounds Threads.MAX up to whole
+ *    groups), so machines with fewer than 7 cores, or not a multiple of 7, run more threads than cores.
+ *    mixedOps spawns as many threads as there are cores in the test environment.
+ * 2. Throughput : Higher numbers mean better performance.
+ * 3. SampleTime : Lower numbers mean better performance.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class HashMapMixedBench {
+	//What computeIfAbsent() maps a missing key to
+	private static final IntUnaryOperator IDENTITY = key -> key;
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	@State(Scope.Benchmark)
+	public static class MapState {
+		//The size of the key-range. MUST BE 2^n-1 since our modulo operation depends on it.
+		@Param({"255", "8191", "32767"})
+		int HASH_MAP_SIZE;
+
+		@Param({"ConcurrentHashMap", "SynchronizedHashMap", "StripedIntIntOpenHashMap"})
+		String mapType;
+
+		IntIntMap map;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			if(mapType.equals("ConcurrentHashMap")) {
+				map = new BoxedIntIntMap(new ConcurrentHashMap<>(HASH_MAP_SIZE));
+			} else if(mapType.equals("SynchronizedHashMap")) {
+				map = new BoxedIntIntMap(Collections.synchronizedMap(new HashMap<>(HASH_MAP_SIZE)));
+			} else if(mapType.equals("StripedIntIntOpenHashMap")) {
+				map = new StripedIntIntOpenHashMap(HASH_MAP_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+			}
+
+			//Start with every key in [0, HASH_MAP_SIZE] present. Removes take keys out and puts / computeIfAbsents put them back.
+			for(int i=0; i<=HASH_MAP_SIZE; ++i) {
+				map.put(i, i);
+			}
+		}
+	}
+
+	/**
+	 * The mix of operations in mixedOps. The choice of operation is made from 10 bits of the random number, so the
+	 * percentages are converted into thresholds out of 1024.
+	 */
+	@State(Scope.Thread)
+	public static class OpMixState {
+		//The percentage of operations that are gets, e.g. 95 means 95:5 reads:writes
+		@Param({"95", "80", "50"})
+		int readPercent;
+
+		int getThreshold;
+		int putThreshold;
+		int removeThreshold;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			getThreshold = readPercent * 1024 / 100;
+			int writeShare = (1024 - getThreshold) / 3;
+			putThreshold = getThreshold + writeShare;
+			removeThreshold = putThreshold + writeShare;
+		}
+	}
+
+	@Benchmark
+	@Group("asymmetric")
+	@GroupThreads(4)
+	public int get(MapState mapState, RNGState rngState) {
+		//This is similar to a modulo operation since HASH_MAP_SIZE is 2^n - 1
+		int keyValue = rngState.rng.getNextXorShiftRN() & mapState.HASH_MAP_SIZE;
+		return mapState.map.get(keyValue);
+	}
+
+	@Benchmark
+	@Group("asymmetric")
+	@GroupThreads(1)
+	public int put(MapState mapState, RNGState rngState) {
+		int keyValue = rngState.rng.getNextXorShiftRN() & mapState.HASH_MAP_SIZE;
+		return mapState.map.put(keyValue, keyValue);
+	}
+
+	@Benchmark
+	@Group("asymmetric")
+	@GroupThreads(1)
+	public int remove(MapState mapState, RNGState rngState) {
+		int keyValue = rngState.rng.getNextXorShiftRN() & mapState.HASH_MAP_SIZE;
+		return mapState.map.remove(keyValue);
+	}
+
+	@Benchmark
+	@Group("asymmetric")
+	@GroupThreads(1)
+	public int computeIfAbsent(MapState mapState, RNGState rngState) {
+		int keyValue = rngState.rng.getNextXorShiftRN() & mapState.HASH_MAP_SIZE;
+		return mapState.map.computeIfAbsent(keyValue, IDENTITY);
+	}
+
+	/**
+	 *	This benchmark tests how frequently a mix of operations (decided by readPercent) can be done on a HashMap.
+	 */
+	@Benchmark
+	public int mixedOps(MapState mapState, RNGState rngState, OpMixState opMix) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		//This is similar to a modulo operation since HASH_MAP_SIZE is 2^n - 1
+		int keyValue = rn & mapState.HASH_MAP_SIZE;
+		//The top 10 bits pick the operation. HASH_MAP_SIZE is small enough that they are not part of the key.
+		int op = rn >>> 22;
+		if(op < opMix.getThreshold) {
+			return mapState.map.get(keyValue);
+		} else if(op < opMix.putThreshold) {
+			return mapState.map.put(keyValue, keyValue);
+		} else if(op < opMix.removeThreshold) {
+			return mapState.map.remove(keyValue);
+		}
+		return mapState.map.computeIfAbsent(keyValue, IDENTITY);
+	}
+
+}
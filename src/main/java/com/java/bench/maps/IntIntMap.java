@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A minimal int to int map, so that primitive maps and boxed java.util.Maps can be exercised by the same benchmark code.
+ * Every benchmark fork only ever sees one implementation, so calls through this interface stay monomorphic.
+ */
+public interface IntIntMap {
+	/**
+	 * The value returned when a key is not present. It is a legal value too, so don't store it if you need to tell
+	 * the difference.
+	 */
+	int NO_VALUE = Integer.MIN_VALUE;
+
+	/**
+	 * @return The value mapped to key, or NO_VALUE if there is none.
+	 */
+	int get(int key);
+
+	/**
+	 * @return The value previously mapped to key, or NO_VALUE if there was none.
+	 */
+	int put(int key, int value);
+
+	/**
+	 * @return The value that was mapped to key, or NO_VALUE if there was none.
+	 */
+	int remove(int key);
+
+	/**
+	 * Like java.util.Map.computeIfAbsent() : if key is not present, map it to mappingFunction(key).
+	 * @return The value mapped to key after this call.
+	 */
+	int computeIfAbsent(int key, IntUnaryOperator mappingFunction);
+
+	int size();
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * An int to int hash map using open addressing with linear probing (https://en.wikipedia.org/wiki/Linear_probing).
+ *
+ * Keys and values are interleaved in a single int[] so that a lookup usually touches only one cache line, and nothing
+ * is ever boxed. The capacity is always a power of 2 so that (like in HashMapBench) we can AND with capacity-1 instead
+ * of doing a modulo.
+ *
+ * This class is <strong>not</strong> thread-safe. Please see StripedIntIntOpenHashMap for that.
+ */
+public class IntIntOpenHashMap implements IntIntMap {
+	//A slot whose key is FREE_KEY is empty. So the key 0 itself is stored outside the table.
+	private static final int FREE_KEY = 0;
+	private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+	//key at 2*slot, value at 2*slot + 1
+	private int[] table;
+	//Number of slots - 1
+	private int mask;
+	private int size;
+	private int resizeThreshold;
+	//The fraction of slots that may be used before the table is doubled. Linear probing gets slow beyond about 0.7.
+	private final float loadFactor;
+
+	private boolean hasFreeKey;
+	private int freeKeyValue;
+
+	public IntIntOpenHashMap(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR);
+	}
+
+	public IntIntOpenHashMap(int expectedSize, float loadFactor) {
+		if(!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("Illegal load factor : " + loadFactor);
+		this.loadFactor = loadFactor;
+		allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / loadFactor)));
+	}
+
+	/**
+	 * Scramble the bits of the key so that sequential keys don't end up in sequential slots and cause long probe runs.
+	 * This is the golden ratio multiplication used by many open-addressing implementations.
+	 */
+	static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	static int tableSizeFor(int capacity) {
+		int n = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		if(n <= 0) throw new IllegalArgumentException("Capacity is too large : " + capacity);
+		return n;
+	}
+
+	private void allocate(int slots) {
+		table = new int[slots * 2];
+		mask = slots - 1;
+		//At least 1 slot must stay free, so that probing for a missing key ends.
+		resizeThreshold = Math.min((int) (slots * loadFactor), slots - 1);
+	}
+
+	@Override
+	public int get(int key) {
+		if(key == FREE_KEY) return hasFreeKey ? freeKeyValue : NO_VALUE;
+
+		int slot = mix(key) & mask;
+		while(true) {
+			int k = table[slot << 1];
+			if(k == key) return table[(slot << 1) + 1];
+			if(k == FREE_KEY) return NO_VALUE;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	@Override
+	public int put(int key, int value) {
+		if(key == FREE_KEY) {
+			int previous = hasFreeKey ? freeKeyValue : NO_VALUE;
+			if(!hasFreeKey) {
+				hasFreeKey = true;
+				++size;
+			}
+			freeKeyValue = value;
+			return previous;
+		}
+
+		int slot = mix(key) & mask;
+		while(true) {
+			int k = table[slot << 1];
+			if(k == key) {
+				int previous = table[(slot << 1) + 1];
+				table[(slot << 1) + 1] = value;
+				return previous;
+			}
+			if(k == FREE_KEY) {
+				table[slot << 1] = key;
+				table[(slot << 1) + 1] = value;
+				if(++size > resizeThreshold) rehash();
+				return NO_VALUE;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	@Override
+	public int remove(int key) {
+		if(key == FREE_KEY) {
+			if(!hasFreeKey) return NO_VALUE;
+			hasFreeKey = false;
+			--size;
+			return freeKeyValue;
+		}
+
+		int slot = mix(key) & mask;
+		while(true) {
+			int k = table[slot << 1];
+			if(k == key) {
+				int previous = table[(slot << 1) + 1];
+				shiftKeys(slot);
+				--size;
+				return previous;
+			}
+			if(k == FREE_KEY) return NO_VALUE;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * A stored value of NO_VALUE is treated as absent. That's fine for the benchmarks, which never store it.
+	 */
+	@Override
+	public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+		int value = get(key);
+		if(value == NO_VALUE) {
+			value = mappingFunction.applyAsInt(key);
+			put(key, value);
+		}
+		return value;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	//The number of slots in the table, so that tests can check how full it is.
+	int slots() {
+		return mask + 1;
+	}
+
+	/**
+	 * Removes every key, but keeps the table at its current size (like java.util.HashMap.clear()).
+	 */
+	public void clear() {
+		Arrays.fill(table, FREE_KEY);
+		size = 0;
+		hasFreeKey = false;
+	}
+
+	/**
+	 * Backward shift deletion (https://en.wikipedia.org/wiki/Linear_probing#Deletion). Rather than leaving a tombstone,
+	 * move the later entries of the probe run into the hole, so that lookups can still stop at the first free slot.
+	 */
+	private void shiftKeys(int hole) {
+		int slot = hole;
+		while(true) {
+			slot = (slot + 1) & mask;
+			int k = table[slot << 1];
+			if(k == FREE_KEY) break;
+			//The entry may only move back if its ideal slot is not between the hole and where it currently is.
+			int ideal = mix(k) & mask;
+			if(((slot - ideal) & mask) >= ((slot - hole) & mask)) {
+				table[hole << 1] = k;
+				table[(hole << 1) + 1] = table[(slot << 1) + 1];
+				hole = slot;
+			}
+		}
+		table[hole << 1] = FREE_KEY;
+		table[(hole << 1) + 1] = 0;
+	}
+
+	private void rehash() {
+		int[] oldTable = table;
+		allocate((mask + 1) * 2);
+		for(int i = 0; i < oldTable.length; i += 2) {
+			int key = oldTable[i];
+			if(key == FREE_KEY) continue;
+			int slot = mix(key) & mask;
+			while(table[slot << 1] != FREE_KEY) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot << 1] = key;
+			table[(slot << 1) + 1] = oldTable[i + 1];
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+/**
+ * A set of ints using open addressing with linear probing, like IntIntOpenHashMap but with only keys in the table. So
+ * twice as many keys fit in a cache line, and nothing is ever boxed. Keys can't be removed : it is meant for lookups in
+ * sets that are built once (e.g. allow-lists).
+ *
+ * This class is <strong>not</strong> thread-safe for writes. Once built, it may be read by any number of threads.
+ */
+public class IntOpenHashSet {
+	//A slot whose key is FREE_KEY is empty. So the key 0 itself is stored outside the table.
+	private static final int FREE_KEY = 0;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private int[] table;
+	//Number of slots - 1
+	private int mask;
+	private int size;
+	private int resizeThreshold;
+	private boolean hasFreeKey;
+
+	public IntOpenHashSet(int expectedSize) {
+		allocate(IntIntOpenHashMap.tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+	}
+
+	private void allocate(int slots) {
+		table = new int[slots];
+		mask = slots - 1;
+		resizeThreshold = (int) (slots * LOAD_FACTOR);
+	}
+
+	public boolean contains(int key) {
+		if(key == FREE_KEY) return hasFreeKey;
+
+		int slot = IntIntOpenHashMap.mix(key) & mask;
+		while(true) {
+			int k = table[slot];
+			if(k == key) return true;
+			if(k == FREE_KEY) return false;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * @return false if key was already present.
+	 */
+	public boolean add(int key) {
+		if(key == FREE_KEY) {
+			if(hasFreeKey) return false;
+			hasFreeKey = true;
+			size++;
+			return true;
+		}
+
+		int slot = IntIntOpenHashMap.mix(key) & mask;
+		while(true) {
+			int k = table[slot];
+			if(k == key) return false;
+			if(k == FREE_KEY) {
+				table[slot] = key;
+				if(++size >= resizeThreshold) rehash();
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private void rehash() {
+		int[] oldTable = table;
+		allocate(oldTable.length * 2);
+		for(int key : oldTable) {
+			if(key == FREE_KEY) continue;
+			int slot = IntIntOpenHashMap.mix(key) & mask;
+			while(table[slot] != FREE_KEY) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = key;
+		}
+	}
+}
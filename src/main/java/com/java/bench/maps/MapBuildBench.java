@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * This benchmark tests how long it takes to build a map of MAP_SIZE entries, e.g. to rebuild a routing table on every
+ * config push. HashMapBench and MapScalingBench build their maps in the setup, so the cost of resizing never shows up
+ * there. The benchmarks are :
+ * <ol>
+ * 	<li>buildEmpty / buildPresized : put every key into a map created with the default capacity (so it is resized
+ * 	log2(MAP_SIZE) times on the way) or created for MAP_SIZE keys.</li>
+ * 	<li>copyConstructor / putAll : copy an existing HashMap with new HashMap(map) / new ConcurrentHashMap(map), and with
+ * 	putAll() into an empty map. Both presize from map.size(), although ConcurrentHashMap.putAll() may still resize.</li>
+ * 	<li>clearAndRefill : clear() a map that already held MAP_SIZE keys and put them all again. The table keeps its size,
+ * 	so there is no resizing, but clear() has to go over the whole table.</li>
+ * 	<li>concurrentPopulate : populatingThreads threads each put their slice of the keys into one ConcurrentHashMap,
+ * 	empty or presized. When an empty ConcurrentHashMap resizes, the threads putting into it help move the bins to the
+ * 	new table instead of waiting.</li>
+ * </ol>
+ *
+ * The keys are boxed once in the setup, so that the java.util maps don't spend the time boxing (IntIntOpenHashMap gets
+ * the same keys as ints). Every map built is returned, so that it can't be optimized away, and then becomes garbage.
+ *
+ * This is the average time of a warmed up build. To see a build in a fresh JVM (like the first config push after a
+ * restart), please pass "-bm ss -i 1 -wi 0" for SingleShotTime.
+ *
+ * By default:
+ * 1. This test spawns only 1 thread, which waits while concurrentPopulate runs on populatingThreads pool threads.
+ * 2. Lower numbers mean better performance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class MapBuildBench {
+
+	@State(Scope.Benchmark)
+	public static class KeyState {
+		@Param({"1000", "100000", "1000000"})
+		int MAP_SIZE;
+
+		int[] intKeys;
+		Integer[] keys;
+		//An existing map of the keys, to be copied.
+		Map<Integer, Integer> source;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			intKeys = new int[MAP_SIZE];
+			keys = new Integer[MAP_SIZE];
+			source = new HashMap<>();
+			for(int i=0; i<MAP_SIZE; ++i) {
+				//Spread the keys out like ids, rather than 0, 1, 2...
+				intKeys[i] = IntIntOpenHashMap.mix(i + 1);
+				keys[i] = intKeys[i];
+				source.put(keys[i], keys[i]);
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class MapTypeState {
+		@Param({"HashMap", "ConcurrentHashMap", "IntIntOpenHashMap"})
+		String mapType;
+
+		/**
+		 * @return A new map holding every key, created for MAP_SIZE keys if presized, with the default capacity otherwise.
+		 */
+		Object build(KeyState keyState, boolean presized) {
+			if(mapType.equals("HashMap")) {
+				//HashMap takes the table size, not the number of keys.
+				return fill(presized ? new HashMap<>((int) Math.ceil(keyState.MAP_SIZE / 0.75)) : new HashMap<>(),
+						keyState);
+			} else if(mapType.equals("ConcurrentHashMap")) {
+				return fill(presized ? new ConcurrentHashMap<>(keyState.MAP_SIZE) : new ConcurrentHashMap<>(), keyState);
+			} else if(mapType.equals("IntIntOpenHashMap")) {
+				//The smallest table IntIntOpenHashMap allows, like the 16 of HashMap.
+				return fill(new IntIntOpenHashMap(presized ? keyState.MAP_SIZE : 1), keyState);
+			}
+			throw new IllegalArgumentException("Unknown map type : " + mapType);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class RefillState {
+		Object map;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup(KeyState keyState, MapTypeState mapTypeState) {
+			map = mapTypeState.build(keyState, false);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class PopulateState {
+		@Param({"1", "2", "4"})
+		int populatingThreads;
+
+		@Param({"empty", "presized"})
+		String sizing;
+
+		ExecutorService pool;
+		List<Callable<Void>> tasks = new ArrayList<>();
+		//The map being populated by the tasks. Replaced by every invocation.
+		volatile ConcurrentHashMap<Integer, Integer> map;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup(KeyState keyState) {
+			if(!sizing.equals("empty") && !sizing.equals("presized")) {
+				throw new IllegalArgumentException("Unknown sizing : " + sizing);
+			}
+			pool = Executors.newFixedThreadPool(populatingThreads);
+			Integer[] keys = keyState.keys;
+			for(int t=0; t<populatingThreads; ++t) {
+				final int from = (int) ((long) keys.length * t / populatingThreads);
+				final int to = (int) ((long) keys.length * (t + 1) / populatingThreads);
+				tasks.add(() -> {
+					ConcurrentHashMap<Integer, Integer> target = map;
+					for(int i=from; i<to; ++i) {
+						target.put(keys[i], keys[i]);
+					}
+					return null;
+				});
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			pool.shutdown();
+		}
+	}
+
+	private static Map<Integer, Integer> fill(Map<Integer, Integer> map, KeyState keyState) {
+		for(Integer key : keyState.keys) {
+			map.put(key, key);
+		}
+		return map;
+	}
+
+	private static IntIntOpenHashMap fill(IntIntOpenHashMap map, KeyState keyState) {
+		for(int key : keyState.intKeys) {
+			map.put(key, key);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Object buildEmpty(KeyState keyState, MapTypeState mapTypeState) {
+		return mapTypeState.build(keyState, false);
+	}
+
+	@Benchmark
+	public Object buildPresized(KeyState keyState, MapTypeState mapTypeState) {
+		return mapTypeState.build(keyState, true);
+	}
+
+	@Benchmark
+	public Map<Integer, Integer> copyConstructorHashMap(KeyState keyState) {
+		return new HashMap<>(keyState.source);
+	}
+
+	@Benchmark
+	public Map<Integer, Integer> copyConstructorConcurrentHashMap(KeyState keyState) {
+		return new ConcurrentHashMap<>(keyState.source);
+	}
+
+	@Benchmark
+	public Map<Integer, Integer> putAllHashMap(KeyState keyState) {
+		Map<Integer, Integer> map = new HashMap<>();
+		map.putAll(keyState.source);
+		return map;
+	}
+
+	@Benchmark
+	public Map<Integer, Integer> putAllConcurrentHashMap(KeyState keyState) {
+		Map<Integer, Integer> map = new ConcurrentHashMap<>();
+		map.putAll(keyState.source);
+		return map;
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public Object clearAndRefill(KeyState keyState, RefillState refillState) {
+		if(refillState.map instanceof IntIntOpenHashMap) {
+			IntIntOpenHashMap map = (IntIntOpenHashMap) refillState.map;
+			map.clear();
+			return fill(map, keyState);
+		}
+		Map<Integer, Integer> map = (Map<Integer, Integer>) refillState.map;
+		map.clear();
+		return fill(map, keyState);
+	}
+
+	@Benchmark
+	public Map<Integer, Integer> concurrentPopulate(KeyState keyState, PopulateState populateState)
+			throws InterruptedException, ExecutionException {
+		populateState.map = populateState.sizing.equals("presized") ? new ConcurrentHashMap<>(keyState.MAP_SIZE)
+				: new ConcurrentHashMap<>();
+		for(Future<Void> future : populateState.pool.invokeAll(populateState.tasks)) {
+			//Rethrows anything that went wrong in a task.
+			future.get();
+		}
+		return populateState.map;
+	}
+
+}
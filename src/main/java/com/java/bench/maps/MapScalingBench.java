@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+
+import com.java.bench.util.SizeSweep;
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how get() and put() slow down as maps grow from fitting in the L1 cache to millions of entries,
+ * where almost every random get() is a cache miss (and often a TLB miss) to DRAM. HashMapBench stops at 32767 keys,
+ * which still fits in the L2 cache.
+ *
+ * HASH_MAP_SIZE + 1 is the number of slots of the table, and the maps hold (HASH_MAP_SIZE + 1) * loadFactor keys, so
+ * that every loadFactor fills the same table to that fraction (a fixed number of keys would just get a table a power of
+ * 2 up, and much the same fraction of it used). The maps are either presized (created for that many keys) or grown
+ * (created empty and resized as the keys were put), and end up with the same table either way, but the entries of a
+ * grown map were allocated between resizes. How long it takes to build the maps is measured by MapBuildBench.
+ * ConcurrentHashMap only uses the load factor to size its initial table, and always resizes once it holds 0.75 of it,
+ * so at loadFactor 0.75 and 0.9 it ends up with twice the table of the others.
+ *
+ * Please run the main() method to sweep HASH_MAP_SIZE from 2^10-1 to 2^24-1 and get a table of the results, printed under
+ * the cache sizes of the machine. A HashMap of 2^24 entries takes about 1GB of heap, so every fork gets -Xmx6g.
+ *
+ * By default:
+ * 1. This test spawns only 1 thread.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(jvmArgsAppend = "-Xmx6g")
+public class MapScalingBench {
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	@State(Scope.Benchmark)
+	public static class MapState {
+		//The number of slots - 1. MUST BE 2^n-1, since the tables of all the maps are a power of 2.
+		@Param({"65535", "1048575", "16777215"})
+		int HASH_MAP_SIZE;
+
+		@Param({"HashMap", "ConcurrentHashMap", "IntIntOpenHashMap"})
+		String mapType;
+
+		@Param({"presized", "grown"})
+		String sizing;
+
+		//0.75 is the default of the java.util maps, 0.5 that of IntIntOpenHashMap.
+		@Param({"0.5", "0.75", "0.9"})
+		float loadFactor;
+
+		IntIntMap map;
+		//The keys are 0 to keyCount-1
+		int keyCount;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			boolean presized;
+			if(sizing.equals("presized")) {
+				presized = true;
+			} else if(sizing.equals("grown")) {
+				presized = false;
+			} else {
+				throw new IllegalArgumentException("Unknown sizing : " + sizing);
+			}
+			int slots = HASH_MAP_SIZE + 1;
+			keyCount = (int) (slots * loadFactor);
+			//A grown map starts with the smallest table it allows, so that it resizes all the way up.
+			int initialCapacity = presized ? keyCount : 1;
+
+			if(mapType.equals("HashMap")) {
+				//Unlike the others, HashMap takes the table size, not the number of keys.
+				int tableSize = presized ? (int) Math.ceil(keyCount / loadFactor) : 1;
+				map = new BoxedIntIntMap(new HashMap<>(tableSize, loadFactor));
+			} else if(mapType.equals("ConcurrentHashMap")) {
+				//ConcurrentHashMap(n, loadFactor) makes room for 1 more than n / loadFactor, which would double the table.
+				if(presized) initialCapacity = (int) ((slots - 1) * loadFactor);
+				map = new BoxedIntIntMap(new ConcurrentHashMap<>(initialCapacity, loadFactor));
+			} else if(mapType.equals("IntIntOpenHashMap")) {
+				map = new IntIntOpenHashMap(initialCapacity, loadFactor);
+			} else {
+				throw new IllegalArgumentException("Unknown map type : " + mapType);
+			}
+
+			//Every key in the key-range, so that every get() finds its key and every put() overwrites.
+			for(int i=0; i<keyCount; ++i) {
+				map.put(i, i);
+			}
+		}
+
+		/**
+		 * keyCount isn't a power of 2, so rather than a modulo (a division) the random int is scaled down to the
+		 * key-range with a multiply and a shift.
+		 */
+		int keyFor(int rn) {
+			return (int) (((rn & 0xFFFFFFFFL) * keyCount) >>> 32);
+		}
+	}
+
+	@Benchmark
+	public int get(MapState mapState, RNGState rngState) {
+		return mapState.map.get(mapState.keyFor(rngState.rng.getNextXorShiftRN()));
+	}
+
+	@Benchmark
+	public int put(MapState mapState, RNGState rngState) {
+		int rn = rngState.rng.getNextXorShiftRN();
+		return mapState.map.put(mapState.keyFor(rn), rn >>> 1);
+	}
+
+	/**
+	 * Runs this benchmark for every HASH_MAP_SIZE of SizeSweep (unless -p HASH_MAP_SIZE=... is passed), and prints a
+	 * table of ops/s by size. Any other JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.maps.MapScalingBench -f 1 -wi 3 -i 5 -p loadFactor=0.75
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException,
+			InterruptedException {
+		//An int key and an int value per slot of IntIntOpenHashMap, which has HASH_MAP_SIZE + 1 slots at every loadFactor
+		SizeSweep.run(MapScalingBench.class, "HASH_MAP_SIZE", 8, args);
+	}
+
+}
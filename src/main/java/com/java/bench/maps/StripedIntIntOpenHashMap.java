@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.maps;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A thread-safe int to int map made of several IntIntOpenHashMaps (stripes), each guarded by its own intrinsic lock.
+ * This is the same idea as the segments in the JDK7 ConcurrentHashMap : threads only contend when their keys land in
+ * the same stripe.
+ *
+ * The stripe is picked using the high bits of the hash, since the stripes themselves use the low bits to pick a slot.
+ */
+public class StripedIntIntOpenHashMap implements IntIntMap {
+	private final IntIntOpenHashMap[] stripes;
+	//32 - log2(stripes.length)
+	private final int stripeShift;
+
+	/**
+	 * @param expectedSize The total number of keys expected in the map.
+	 * @param numStripes The number of independently locked stripes. It is rounded up to a power of 2.
+	 */
+	public StripedIntIntOpenHashMap(int expectedSize, int numStripes) {
+		int stripeCount = IntIntOpenHashMap.tableSizeFor(numStripes);
+		stripes = new IntIntOpenHashMap[stripeCount];
+		for(int i = 0; i < stripeCount; ++i) {
+			stripes[i] = new IntIntOpenHashMap(expectedSize / stripeCount + 1);
+		}
+		stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+	}
+
+	private IntIntOpenHashMap stripeFor(int key) {
+		return stripes[IntIntOpenHashMap.mix(key) >>> stripeShift];
+	}
+
+	@Override
+	public int get(int key) {
+		IntIntOpenHashMap stripe = stripeFor(key);
+		synchronized(stripe) {
+			return stripe.get(key);
+		}
+	}
+
+	@Override
+	public int put(int key, int value) {
+		IntIntOpenHashMap stripe = stripeFor(key);
+		synchronized(stripe) {
+			return stripe.put(key, value);
+		}
+	}
+
+	@Override
+	public int remove(int key) {
+		IntIntOpenHashMap stripe = stripeFor(key);
+		synchronized(stripe) {
+			return stripe.remove(key);
+		}
+	}
+
+	@Override
+	public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+		IntIntOpenHashMap stripe = stripeFor(key);
+		synchronized(stripe) {
+			return stripe.computeIfAbsent(key, mappingFunction);
+		}
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for(IntIntOpenHashMap stripe : stripes) {
+			synchronized(stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An OffHeapIntIntMap in a direct ByteBuffer. The memory is freed when the ByteBuffer is garbage collected.
+ *
+ * A ByteBuffer is indexed by int, so the table can't be larger than 1GB (the largest power of 2 below 2GB) : 2^27
+ * slots, i.e. 2^26 keys at the load factor. The ByteBuffer uses the native byte order, so that getInt() / putInt()
+ * don't swap bytes.
+ */
+public class ByteBufferIntIntMap extends OffHeapIntIntMap {
+	private static final long MAX_SLOTS = (1L << 30) / SLOT_BYTES;
+
+	private final ByteBuffer table;
+
+	public ByteBufferIntIntMap(long expectedSize) {
+		super(checkedSlotsFor(expectedSize));
+		table = ByteBuffer.allocateDirect((int) (slotsFor(expectedSize) * SLOT_BYTES)).order(ByteOrder.nativeOrder());
+	}
+
+	private static long checkedSlotsFor(long expectedSize) {
+		long slots = slotsFor(expectedSize);
+		if(slots > MAX_SLOTS) throw new IllegalArgumentException("Too many keys for a ByteBuffer : " + expectedSize);
+		return slots;
+	}
+
+	@Override
+	protected int getInt(long offset) {
+		return table.getInt((int) offset);
+	}
+
+	@Override
+	protected void putInt(long offset, int value) {
+		table.putInt((int) offset, value);
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.offheap;
+
+import java.lang.reflect.Constructor;
+import java.util.function.IntUnaryOperator;
+
+import com.java.bench.maps.IntIntMap;
+
+/**
+ * An int to int hash map whose table lives outside the Java heap, so that however many entries it holds, the GC only
+ * ever sees one small object. It works like IntIntOpenHashMap (open addressing with linear probing, backward shift
+ * deletion), except that the number of slots is fixed when it is created : there is no rehash, and put() fails once
+ * the map is full. The table is allocated once, like an arena, and never grows.
+ *
+ * A slot is 8 bytes : the key at offset 0 and the value at offset 4. Subclasses only say how an int is read and written
+ * at an offset. Every benchmark fork only ever sees one subclass, so these calls stay monomorphic.
+ *
+ * This class is <strong>not</strong> thread-safe for writes. Once built, it may be read by any number of threads.
+ */
+public abstract class OffHeapIntIntMap implements IntIntMap {
+	//A slot whose key is FREE_KEY is empty. So the key 0 itself is stored outside the table.
+	private static final int FREE_KEY = 0;
+	private static final float LOAD_FACTOR = 0.5f;
+	protected static final int SLOT_BYTES = 8;
+
+	//Number of slots - 1
+	private final long mask;
+	private final long maxSize;
+	private long size;
+
+	private boolean hasFreeKey;
+	private int freeKeyValue;
+
+	/**
+	 * @param slots MUST BE a power of 2. Please see slotsFor().
+	 */
+	protected OffHeapIntIntMap(long slots) {
+		mask = slots - 1;
+		//Always leave a free slot, so that probing for a missing key ends.
+		maxSize = slots - 1;
+	}
+
+	/**
+	 * @return The number of slots needed to hold expectedSize keys at the LOAD_FACTOR.
+	 */
+	protected static long slotsFor(long expectedSize) {
+		long capacity = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+		return Long.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+	}
+
+	protected abstract int getInt(long offset);
+
+	protected abstract void putInt(long offset, int value);
+
+	/**
+	 * @param type "ByteBufferIntIntMap", or "MemorySegmentIntIntMap" when built with JDK22+ (the java22 profile in
+	 * pom.xml).
+	 */
+	public static OffHeapIntIntMap newOffHeapMap(String type, long expectedSize) {
+		if(type.equals("ByteBufferIntIntMap")) {
+			return new ByteBufferIntIntMap(expectedSize);
+		} else if(type.equals("MemorySegmentIntIntMap")) {
+			//Compiled from src/main/java22, so it isn't there when built with an older JDK.
+			try {
+				Constructor<?> constructor = Class.forName(OffHeapIntIntMap.class.getPackage().getName() + "." + type)
+						.getConstructor(long.class);
+				return (OffHeapIntIntMap) constructor.newInstance(expectedSize);
+			} catch(ClassNotFoundException e) {
+				throw new UnsupportedOperationException(type + " needs to be built with JDK22 or later", e);
+			} catch(ReflectiveOperationException e) {
+				throw new IllegalStateException("Couldn't create a " + type, e);
+			}
+		}
+		throw new IllegalArgumentException("Unknown off-heap map type : " + type);
+	}
+
+	/**
+	 * The same golden ratio multiplication as IntIntOpenHashMap.
+	 */
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private long idealSlot(int key) {
+		//mix() may be negative. Widen it without the sign, so that all of the slots are used even beyond 2^31.
+		return (mix(key) & 0xFFFFFFFFL) & mask;
+	}
+
+	@Override
+	public int get(int key) {
+		if(key == FREE_KEY) return hasFreeKey ? freeKeyValue : NO_VALUE;
+
+		long slot = idealSlot(key);
+		while(true) {
+			int k = getInt(slot * SLOT_BYTES);
+			if(k == key) return getInt(slot * SLOT_BYTES + 4);
+			if(k == FREE_KEY) return NO_VALUE;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * @throws IllegalStateException if key is not present and the map is full.
+	 */
+	@Override
+	public int put(int key, int value) {
+		if(key == FREE_KEY) {
+			int previous = hasFreeKey ? freeKeyValue : NO_VALUE;
+			if(!hasFreeKey) {
+				hasFreeKey = true;
+				++size;
+			}
+			freeKeyValue = value;
+			return previous;
+		}
+
+		long slot = idealSlot(key);
+		while(true) {
+			int k = getInt(slot * SLOT_BYTES);
+			if(k == key) {
+				int previous = getInt(slot * SLOT_BYTES + 4);
+				putInt(slot * SLOT_BYTES + 4, value);
+				return previous;
+			}
+			if(k == FREE_KEY) {
+				if(size >= maxSize) throw new IllegalStateException("The map is full : " + size + " keys");
+				putInt(slot * SLOT_BYTES, key);
+				putInt(slot * SLOT_BYTES + 4, value);
+				++size;
+				return NO_VALUE;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	@Override
+	public int remove(int key) {
+		if(key == FREE_KEY) {
+			if(!hasFreeKey) return NO_VALUE;
+			hasFreeKey = false;
+			--size;
+			return freeKeyValue;
+		}
+
+		long slot = idealSlot(key);
+		while(true) {
+			int k = getInt(slot * SLOT_BYTES);
+			if(k == key) {
+				int previous = getInt(slot * SLOT_BYTES + 4);
+				shiftKeys(slot);
+				--size;
+				return previous;
+			}
+			if(k == FREE_KEY) return NO_VALUE;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * A stored value of NO_VALUE is treated as absent. That's fine for the benchmarks, which never store it.
+	 */
+	@Override
+	public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+		int value = get(key);
+		if(value == NO_VALUE) {
+			value = mappingFunction.applyAsInt(key);
+			put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Saturates at Integer.MAX_VALUE. The table may hold more keys than that.
+	 */
+	@Override
+	public int size() {
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Backward shift deletion, please see IntIntOpenHashMap.shiftKeys().
+	 */
+	private void shiftKeys(long hole) {
+		long slot = hole;
+		while(true) {
+			slot = (slot + 1) & mask;
+			int k = getInt(slot * SLOT_BYTES);
+			if(k == FREE_KEY) break;
+			long ideal = idealSlot(k);
+			if(((slot - ideal) & mask) >= ((slot - hole) & mask)) {
+				putInt(hole * SLOT_BYTES, k);
+				putInt(hole * SLOT_BYTES + 4, getInt(slot * SLOT_BYTES + 4));
+				hole = slot;
+			}
+		}
+		putInt(hole * SLOT_BYTES, FREE_KEY);
+		putInt(hole * SLOT_BYTES + 4, 0);
+	}
+}
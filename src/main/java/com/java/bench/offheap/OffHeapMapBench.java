@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.offheap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.java.bench.maps.BoxedIntIntMap;
+import com.java.bench.maps.IntIntMap;
+import com.java.bench.maps.IntIntOpenHashMap;
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests large int to int maps on and off the Java heap : a ConcurrentHashMap (tens of millions of Nodes
+ * and Integers for the GC to trace), an IntIntOpenHashMap (a single int[], which the GC doesn't need to look into) and
+ * the OffHeapIntIntMaps in a direct ByteBuffer and a MemorySegment (JDK22+ builds only), which the GC doesn't see at all.
+ *
+ * The time per get() / put() is only half of the story. A real application allocates while it uses the map, so every
+ * operation also allocates garbagePerOp bytes, which brings on young GCs. A ConcurrentHashMap put() stores a new Integer
+ * (allocated in the young generation) into an old Node, so the next young GC has to find and scan that Node too. Please
+ * run the main() method, which adds the JMH GC profiler and prints the number of GCs and the total time spent in them
+ * (gc.count and gc.time) next to the throughput.
+ *
+ * A ConcurrentHashMap of 33554431 entries takes about 3GB of heap, so every fork gets -Xmx6g. Please pass e.g.
+ * "-jvmArgsAppend -Xmx12g" to change that (it replaces the -Xmx6g), and "-p mapSize=1048575" on a smaller machine.
+ *
+ * MemorySegmentIntIntMap isn't run by default, since it needs a build with JDK22+. On such a jar, please pass e.g.
+ * "-p mapType=ConcurrentHashMap,IntIntOpenHashMap,ByteBufferIntIntMap,MemorySegmentIntIntMap".
+ *
+ * By default:
+ * 1. This test spawns only 1 thread.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(jvmArgsAppend = "-Xmx6g")
+public class OffHeapMapBench {
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	@State(Scope.Benchmark)
+	public static class MapState {
+		//The number of keys - 1. MUST BE 2^n-1 since our modulo operation depends on it.
+		@Param({"1048575", "16777215", "33554431"})
+		int mapSize;
+
+		//"MemorySegmentIntIntMap" is left out, since it needs a build with JDK22+. To add it, please pass e.g.
+		//-p mapType=ByteBufferIntIntMap,MemorySegmentIntIntMap
+		@Param({"ConcurrentHashMap", "IntIntOpenHashMap", "ByteBufferIntIntMap"})
+		String mapType;
+
+		IntIntMap map;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			if(mapType.equals("ConcurrentHashMap")) {
+				map = new BoxedIntIntMap(new ConcurrentHashMap<>(mapSize + 1));
+			} else if(mapType.equals("IntIntOpenHashMap")) {
+				map = new IntIntOpenHashMap(mapSize + 1);
+			} else {
+				map = OffHeapIntIntMap.newOffHeapMap(mapType, mapSize + 1);
+			}
+
+			//Every key in [0, mapSize], so that every get() finds its key and every put() overwrites.
+			for(int i=0; i<=mapSize; ++i) {
+				map.put(i, i);
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class GarbageState {
+		//The bytes of garbage allocated by every operation, on top of what the map itself allocates.
+		@Param({"0", "256"})
+		int garbagePerOp;
+	}
+
+	@Benchmark
+	public int get(MapState mapState, RNGState rngState, GarbageState garbageState, Blackhole blackhole) {
+		if(garbageState.garbagePerOp > 0) blackhole.consume(new byte[garbageState.garbagePerOp]);
+		return mapState.map.get(rngState.rng.getNextXorShiftRN() & mapState.mapSize);
+	}
+
+	@Benchmark
+	public int put(MapState mapState, RNGState rngState, GarbageState garbageState, Blackhole blackhole) {
+		if(garbageState.garbagePerOp > 0) blackhole.consume(new byte[garbageState.garbagePerOp]);
+		int rn = rngState.rng.getNextXorShiftRN();
+		//A value outside the Integer cache, like most real values.
+		return mapState.map.put(rn & mapState.mapSize, rn >>> 1);
+	}
+
+	/**
+	 * Runs this benchmark with the GC profiler, and prints the GC count and total GC time of every run next to its
+	 * throughput. Any other JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.offheap.OffHeapMapBench -f 1 -wi 3 -i 5 -p mapSize=16777215
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(OffHeapMapBench.class.getName() + ".")
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		Map<String, String> summary = new LinkedHashMap<>();
+		for(RunResult result : new Runner(opts).run()) {
+			String name = result.getParams().getBenchmark();
+			name = name.substring(name.lastIndexOf('.') + 1);
+			summary.put(String.format("%-6s %-24s %10s %12s", name, result.getParams().getParam("mapType"),
+					result.getParams().getParam("mapSize"), result.getParams().getParam("garbagePerOp")),
+					String.format("%14.0f %10.0f %10.0f", result.getPrimaryResult().getScore(),
+							secondaryScore(result, "gc.count"), secondaryScore(result, "gc.time")));
+		}
+
+		System.out.println(String.format("%-6s %-24s %10s %12s %14s %10s %10s", "Op", "mapType", "mapSize",
+				"garbagePerOp", "ops/s", "gc.count", "gc.time ms"));
+		for(Map.Entry<String, String> row : summary.entrySet()) {
+			System.out.println(row.getKey() + " " + row.getValue());
+		}
+	}
+
+	/**
+	 * The GC profiler's results are labelled with a prefix (e.g. "·gc.time"), so match the end of the label.
+	 */
+	private static double secondaryScore(RunResult result, String label) {
+		//Not an entrySet() loop, because JMH declares the map with the raw type Result.
+		for(String secondaryLabel : result.getSecondaryResults().keySet()) {
+			if(secondaryLabel.endsWith(label)) {
+				Result<?> secondary = result.getSecondaryResults().get(secondaryLabel);
+				return secondary.getScore();
+			}
+		}
+		return Double.NaN;
+	}
+
+}
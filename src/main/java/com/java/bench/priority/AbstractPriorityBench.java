@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.priority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * The benchmarks of PriorityBench and ConcurrentPriorityBench, on a work set (please see WorkSet) shared by all the
+ * threads. JMH runs the benchmarks of this class as those of each subclass, which only differ in their structureTypes
+ * and sizes, and in the number of threads.
+ * <ol>
+ * 	<li>pollOffer : take the most urgent item and reschedule it.</li>
+ * 	<li>removeOffer : take an arbitrary item out and reschedule it. PriorityQueue.remove(Object) and
+ * 	PriorityBlockingQueue.remove(Object) search the whole queue, so this is O(n) for them and O(log n) for the rest.</li>
+ * 	<li>peek : look at the most urgent item.</li>
+ * 	<li>mixed : peekPercent peeks, removePercent removeOffers and the rest pollOffers.</li>
+ * </ol>
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractPriorityBench {
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	/**
+	 * The mix of operations in mixed. The choice of operation is made from 10 bits of the random number, so the
+	 * percentages are converted into thresholds out of 1024.
+	 */
+	@State(Scope.Thread)
+	public static class OpMixState {
+		@Param({"50"})
+		int peekPercent;
+
+		@Param({"1", "10", "40"})
+		int removePercent;
+
+		int peekThreshold;
+		int removeThreshold;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			if(peekPercent + removePercent > 100) {
+				throw new IllegalArgumentException("peekPercent + removePercent is more than 100");
+			}
+			peekThreshold = peekPercent * 1024 / 100;
+			removeThreshold = peekThreshold + removePercent * 1024 / 100;
+		}
+	}
+
+	WorkSet workSet;
+
+	/**
+	 * @return The structureType @Param of the subclass
+	 */
+	abstract String structureType();
+
+	/**
+	 * @return The size @Param of the subclass : the number of work items. MUST BE 2^n since our modulo operation
+	 * depends on it.
+	 */
+	abstract int size();
+
+	//Run the setup only once for all iterations of the benchmark.
+	@Setup(Level.Trial)
+	public void setup() {
+		workSet = new WorkSet(structureType(), size(), new BenchRandomUtil(42));
+	}
+
+	@Benchmark
+	public long pollOffer(RNGState rngState) {
+		return workSet.pollAndReschedule(rngState.rng);
+	}
+
+	@Benchmark
+	public long removeOffer(RNGState rngState) {
+		return workSet.removeAndReschedule(rngState.rng);
+	}
+
+	@Benchmark
+	public long peek() {
+		return workSet.peek();
+	}
+
+	@Benchmark
+	public long mixed(RNGState rngState, OpMixState opMix) {
+		int op = rngState.rng.getNextXorShiftRN() >>> 22;
+		if(op < opMix.peekThreshold) {
+			return workSet.peek();
+		} else if(op < opMix.removeThreshold) {
+			return workSet.removeAndReschedule(rngState.rng);
+		}
+		return workSet.pollAndReschedule(rngState.rng);
+	}
+
+}
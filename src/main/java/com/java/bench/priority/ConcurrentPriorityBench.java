@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.priority;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * PriorityBench with many threads sharing the work set, like the workers of a scheduler. ConcurrentSkipListSet and
+ * PriorityBlockingQueue are thread-safe. TreeSet, PriorityQueue and LongDaryHeap are not, so every operation on them is
+ * synchronized (the Synchronized* types).
+ *
+ * Two threads may race for the same item, in which case removeOffer may find it gone. That counts as an operation too.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ConcurrentPriorityBench extends AbstractPriorityBench {
+	@Param({"ConcurrentSkipListSet", "PriorityBlockingQueue", "SynchronizedTreeSet", "SynchronizedPriorityQueue",
+			"SynchronizedLongDaryHeap"})
+	String structureType;
+
+	//The number of work items. MUST BE 2^n since our modulo operation depends on it.
+	@Param({"1024", "65536"})
+	int size;
+
+	@Override
+	String structureType() {
+		return structureType;
+	}
+
+	@Override
+	int size() {
+		return size;
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.priority;
+
+import java.util.Arrays;
+
+/**
+ * A min-heap of ids with long priorities, with no boxing. Each node has arity children
+ * (https://en.wikipedia.org/wiki/D-ary_heap) : more children make the heap shallower, so offers are cheaper, and polls
+ * compare more children per level, but they are next to each other in memory.
+ *
+ * The ids MUST BE 0 to capacity - 1, and each id may be in the heap only once. The heap keeps the position of every id,
+ * so remove(id) is O(log n). (PriorityQueue.remove(Object) has to search the whole queue for the element first.)
+ * Priorities and ids are kept in separate arrays, so that sifting only reads priorities.
+ */
+public class LongDaryHeap {
+	public static final int NO_ID = -1;
+
+	private final int arity;
+	private final long[] priorities;
+	private final int[] ids;
+	//positions[id] is the index of id in the heap, or NO_ID
+	private final int[] positions;
+	private int size;
+
+	public LongDaryHeap(int capacity, int arity) {
+		if(arity < 2) throw new IllegalArgumentException("The arity must be at least 2, not " + arity);
+		this.arity = arity;
+		priorities = new long[capacity];
+		ids = new int[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, NO_ID);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean contains(int id) {
+		return positions[id] != NO_ID;
+	}
+
+	/**
+	 * @return The priority of id. id MUST be in the heap.
+	 */
+	public long priorityOf(int id) {
+		return priorities[positions[id]];
+	}
+
+	/**
+	 * @return false if id was already in the heap, in which case nothing changes.
+	 */
+	public boolean offer(int id, long priority) {
+		if(positions[id] != NO_ID) return false;
+		siftUp(size++, id, priority);
+		return true;
+	}
+
+	/**
+	 * @return The id with the lowest priority, or NO_ID if the heap is empty.
+	 */
+	public int peekId() {
+		return size == 0 ? NO_ID : ids[0];
+	}
+
+	/**
+	 * @return The lowest priority. The heap MUST NOT be empty.
+	 */
+	public long peekPriority() {
+		return priorities[0];
+	}
+
+	/**
+	 * Removes the id with the lowest priority.
+	 * @return The id, or NO_ID if the heap is empty.
+	 */
+	public int pollId() {
+		if(size == 0) return NO_ID;
+		int id = ids[0];
+		removeAt(0);
+		return id;
+	}
+
+	/**
+	 * @return false if id was not in the heap.
+	 */
+	public boolean remove(int id) {
+		int position = positions[id];
+		if(position == NO_ID) return false;
+		removeAt(position);
+		return true;
+	}
+
+	private void removeAt(int position) {
+		positions[ids[position]] = NO_ID;
+		int last = --size;
+		if(position == last) return;
+		//Move the last node into the hole, and then whichever way it has to go.
+		int id = ids[last];
+		long priority = priorities[last];
+		if(position > 0 && priority < priorities[(position - 1) / arity]) {
+			siftUp(position, id, priority);
+		} else {
+			siftDown(position, id, priority);
+		}
+	}
+
+	/**
+	 * Put (id, priority) in the hole at position, or above it.
+	 */
+	private void siftUp(int position, int id, long priority) {
+		while(position > 0) {
+			int parent = (position - 1) / arity;
+			if(priority >= priorities[parent]) break;
+			place(position, ids[parent], priorities[parent]);
+			position = parent;
+		}
+		place(position, id, priority);
+	}
+
+	/**
+	 * Put (id, priority) in the hole at position, or below it.
+	 */
+	private void siftDown(int position, int id, long priority) {
+		while(true) {
+			int firstChild = arity * position + 1;
+			if(firstChild >= size) break;
+			int lastChild = Math.min(firstChild + arity, size);
+			int minChild = firstChild;
+			for(int child = firstChild + 1; child < lastChild; ++child) {
+				if(priorities[child] < priorities[minChild]) minChild = child;
+			}
+			if(priority <= priorities[minChild]) break;
+			place(position, ids[minChild], priorities[minChild]);
+			position = minChild;
+		}
+		place(position, id, priority);
+	}
+
+	private void place(int position, int id, long priority) {
+		ids[position] = id;
+		priorities[position] = priority;
+		positions[id] = position;
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.priority;
+
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * An ordered set of unique, non-negative long keys, like the work set of a scheduler, which is what PriorityBench
+ * benchmarks. Each key carries an id in its lowest ID_BITS bits (please see newKey()), which LongDaryHeap needs. The
+ * other structures just see unique longs.
+ */
+public abstract class PriorityStructure {
+	public static final long NO_KEY = -1;
+	public static final int ID_BITS = 21;
+	public static final int MAX_IDS = 1 << ID_BITS;
+	private static final long ID_MASK = MAX_IDS - 1;
+
+	/**
+	 * Adds key, which MUST NOT be present already.
+	 */
+	public abstract void offer(long key);
+
+	/**
+	 * Removes the lowest key.
+	 * @return The key, or NO_KEY if empty.
+	 */
+	public abstract long poll();
+
+	/**
+	 * @return The lowest key, or NO_KEY if empty.
+	 */
+	public abstract long peek();
+
+	/**
+	 * @return false if key was not present.
+	 */
+	public abstract boolean remove(long key);
+
+	public abstract int size();
+
+	/**
+	 * @param priority Only the lowest 31 bits are used.
+	 * @param id 0 to MAX_IDS - 1
+	 */
+	public static long newKey(int priority, int id) {
+		return ((long) (priority & Integer.MAX_VALUE) << ID_BITS) | id;
+	}
+
+	public static int idOf(long key) {
+		return (int) (key & ID_MASK);
+	}
+
+	/**
+	 * @param structureType TreeSet, PriorityQueue, ConcurrentSkipListSet, PriorityBlockingQueue or LongDaryHeap (of
+	 * arity 4, or e.g. LongDaryHeap-8 for another arity). Prefix with Synchronized (e.g. SynchronizedTreeSet) to get it
+	 * wrapped in synchronized methods.
+	 * @param capacity The number of ids that will be used. At most MAX_IDS.
+	 */
+	public static PriorityStructure newStructure(String structureType, int capacity) {
+		if(structureType.startsWith("Synchronized")) {
+			return new SynchronizedStructure(newStructure(structureType.substring("Synchronized".length()), capacity));
+		} else if(structureType.equals("TreeSet")) {
+			return new NavigableSetStructure(new TreeSet<>());
+		} else if(structureType.equals("ConcurrentSkipListSet")) {
+			return new NavigableSetStructure(new ConcurrentSkipListSet<>());
+		} else if(structureType.equals("PriorityQueue")) {
+			return new QueueStructure(new PriorityQueue<>(capacity));
+		} else if(structureType.equals("PriorityBlockingQueue")) {
+			return new QueueStructure(new PriorityBlockingQueue<>(capacity));
+		} else if(structureType.equals("LongDaryHeap")) {
+			return new HeapStructure(new LongDaryHeap(capacity, 4));
+		} else if(structureType.startsWith("LongDaryHeap-")) {
+			int arity = Integer.parseInt(structureType.substring("LongDaryHeap-".length()));
+			return new HeapStructure(new LongDaryHeap(capacity, arity));
+		}
+		throw new IllegalArgumentException("Unknown structure type : " + structureType);
+	}
+
+	static class NavigableSetStructure extends PriorityStructure {
+		private final NavigableSet<Long> set;
+
+		NavigableSetStructure(NavigableSet<Long> set) {
+			this.set = set;
+		}
+
+		@Override
+		public void offer(long key) {
+			set.add(key);
+		}
+
+		@Override
+		public long poll() {
+			Long key = set.pollFirst();
+			return key == null ? NO_KEY : key;
+		}
+
+		@Override
+		public long peek() {
+			//first() throws on an empty set, which a concurrent set may become at any time.
+			Long key = set.ceiling(0L);
+			return key == null ? NO_KEY : key;
+		}
+
+		@Override
+		public boolean remove(long key) {
+			return set.remove(key);
+		}
+
+		@Override
+		public int size() {
+			return set.size();
+		}
+	}
+
+	static class QueueStructure extends PriorityStructure {
+		private final Queue<Long> queue;
+
+		QueueStructure(Queue<Long> queue) {
+			this.queue = queue;
+		}
+
+		@Override
+		public void offer(long key) {
+			queue.offer(key);
+		}
+
+		@Override
+		public long poll() {
+			Long key = queue.poll();
+			return key == null ? NO_KEY : key;
+		}
+
+		@Override
+		public long peek() {
+			Long key = queue.peek();
+			return key == null ? NO_KEY : key;
+		}
+
+		@Override
+		public boolean remove(long key) {
+			//A linear search of the queue
+			return queue.remove(key);
+		}
+
+		@Override
+		public int size() {
+			return queue.size();
+		}
+	}
+
+	static class HeapStructure extends PriorityStructure {
+		private final LongDaryHeap heap;
+
+		HeapStructure(LongDaryHeap heap) {
+			this.heap = heap;
+		}
+
+		@Override
+		public void offer(long key) {
+			heap.offer(idOf(key), key);
+		}
+
+		@Override
+		public long poll() {
+			if(heap.size() == 0) return NO_KEY;
+			long key = heap.peekPriority();
+			heap.pollId();
+			return key;
+		}
+
+		@Override
+		public long peek() {
+			return heap.size() == 0 ? NO_KEY : heap.peekPriority();
+		}
+
+		@Override
+		public boolean remove(long key) {
+			int id = idOf(key);
+			return heap.contains(id) && heap.priorityOf(id) == key && heap.remove(id);
+		}
+
+		@Override
+		public int size() {
+			return heap.size();
+		}
+	}
+
+	/**
+	 * For the structures that aren't thread-safe.
+	 */
+	static class SynchronizedStructure extends PriorityStructure {
+		private final PriorityStructure structure;
+
+		SynchronizedStructure(PriorityStructure structure) {
+			this.structure = structure;
+		}
+
+		@Override
+		public synchronized void offer(long key) {
+			structure.offer(key);
+		}
+
+		@Override
+		public synchronized long poll() {
+			return structure.poll();
+		}
+
+		@Override
+		public synchronized long peek() {
+			return structure.peek();
+		}
+
+		@Override
+		public synchronized boolean remove(long key) {
+			return structure.remove(key);
+		}
+
+		@Override
+		public synchronized int size() {
+			return structure.size();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.priority;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * A scheduler's work set : size work items, each with an id and a priority, kept in a PriorityStructure. The size of
+ * the set never changes : whenever an item is taken out, it is rescheduled with a new priority and the same id. That
+ * way there is always exactly one key per id, and we know which key (keys[id]) to remove() for an arbitrary item.
+ *
+ * It is safe for many threads to use if the PriorityStructure is. Two threads may race to take out the same item, but
+ * only one of them will succeed, and only that one reschedules it.
+ */
+public class WorkSet {
+	final PriorityStructure structure;
+	//keys.get(id) is the current key of id. It is published before the key is offered, so that no thread can take the
+	//key out and publish its successor before we publish the key.
+	final AtomicLongArray keys;
+	//size - 1
+	final int idMask;
+
+	/**
+	 * @param size MUST BE 2^n, and at most PriorityStructure.MAX_IDS.
+	 */
+	public WorkSet(String structureType, int size, BenchRandomUtil rng) {
+		if(Integer.bitCount(size) != 1 || size > PriorityStructure.MAX_IDS) {
+			throw new IllegalArgumentException("The size MUST BE 2^n and at most " + PriorityStructure.MAX_IDS);
+		}
+		structure = PriorityStructure.newStructure(structureType, size);
+		keys = new AtomicLongArray(size);
+		idMask = size - 1;
+		for(int id = 0; id < size; ++id) {
+			long key = PriorityStructure.newKey(rng.getNextXorShiftRN(), id);
+			keys.set(id, key);
+			structure.offer(key);
+		}
+	}
+
+	/**
+	 * Take the most urgent item and reschedule it, like a worker does.
+	 * @return The new key, or PriorityStructure.NO_KEY if there was nothing to take.
+	 */
+	public long pollAndReschedule(BenchRandomUtil rng) {
+		long key = structure.poll();
+		if(key == PriorityStructure.NO_KEY) return key;
+		return reschedule(PriorityStructure.idOf(key), rng);
+	}
+
+	/**
+	 * Take an arbitrary item out (e.g. it was cancelled) and reschedule it.
+	 * @return The new key, or PriorityStructure.NO_KEY if another thread took the item out first.
+	 */
+	public long removeAndReschedule(BenchRandomUtil rng) {
+		int id = rng.getNextXorShiftRN() & idMask;
+		if(!structure.remove(keys.get(id))) return PriorityStructure.NO_KEY;
+		return reschedule(id, rng);
+	}
+
+	public long peek() {
+		return structure.peek();
+	}
+
+	private long reschedule(int id, BenchRandomUtil rng) {
+		long key = PriorityStructure.newKey(rng.getNextXorShiftRN(), id);
+		keys.set(id, key);
+		structure.offer(key);
+		return key;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.queues.QueueStates.ConsumerState;
+
+/**
+ * This benchmark tests how many elements per second N producer threads can pass to 1 consumer thread (NP1C, e.g. many
+ * network threads feeding one ingest thread) through different queues. It works like OneToOneQueueBench, so please
+ * see there for how to read the results. SpscArrayQueue is not safe with more than 1 producer, so it isn't benchmarked.
+ *
+ * By default there are 3 producers. To change that (e.g. to 7), please pass "-tg 7,1". JMH orders the counts
+ * alphabetically by method name : offer, poll.
+ *
+ * By default:
+ * 1. This test spawns as many groups of 3 producers and 1 consumer as there are cores / 4, rounded up
+ *    (JMH rounds Threads.MAX up to whole groups).
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class ManyToOneQueueBench {
+
+	@State(Scope.Group)
+	public static class QueueState extends QueueStates.GroupQueueState {
+		@Param({"ArrayBlockingQueue", "LinkedBlockingQueue", "ConcurrentLinkedQueue", "LinkedTransferQueue",
+				"MpscArrayQueue"})
+		String queueType;
+
+		@Override
+		String queueType() {
+			return queueType;
+		}
+	}
+
+	@Benchmark
+	@Group("manyToOne")
+	@GroupThreads(3)
+	public void offer(QueueState queueState, QueueCounters counters) {
+		counters.offer(queueState.queue);
+	}
+
+	@Benchmark
+	@Group("manyToOne")
+	@GroupThreads(1)
+	public void poll(QueueState queueState, ConsumerState consumer, QueueCounters counters) {
+		counters.consume(queueState.queue, consumer.sink, consumer.batchSize);
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer single-consumer ring buffer. Any number of threads may call offer(), but only
+ * ONE thread may call poll() / drainTo().
+ *
+ * Producers claim a slot by CASing the tail forward, and then publish the element into the slot. So the consumer may
+ * find that a slot was claimed (head &lt; tail) but its element isn't visible yet. poll() then spins until it is.
+ * The consumer nulls out a slot before moving the head past it, which is how producers know the slot is free again.
+ *
+ * Like SpscArrayQueue, head and tail are 128 bytes apart so that the producers and the consumer don't false share.
+ */
+public class MpscArrayQueue<E> extends AbstractQueue<E> {
+	//Indices into indices, 16 longs = 128 bytes apart.
+	private static final int HEAD = 16;
+	private static final int TAIL = 32;
+	private static final int PADDED_LENGTH = 48;
+
+	private final AtomicReferenceArray<E> buffer;
+	private final int mask;
+	private final AtomicLongArray indices = new AtomicLongArray(PADDED_LENGTH);
+
+	/**
+	 * @param capacity Rounded up to a power of 2.
+	 */
+	public MpscArrayQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		buffer = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+
+	@Override
+	public boolean offer(E e) {
+		if(e == null) throw new NullPointerException();
+		long tail;
+		do {
+			tail = indices.get(TAIL);
+			if(tail - indices.get(HEAD) > mask) return false;
+		} while(!indices.compareAndSet(TAIL, tail, tail + 1));
+		buffer.lazySet((int) tail & mask, e);
+		return true;
+	}
+
+	@Override
+	public E poll() {
+		long head = indices.get(HEAD);
+		int slot = (int) head & mask;
+		E e = buffer.get(slot);
+		if(e == null) {
+			if(head == indices.get(TAIL)) return null;
+			//A producer has claimed this slot but hasn't published its element yet. It will, very soon.
+			do {
+				e = buffer.get(slot);
+			} while(e == null);
+		}
+		buffer.lazySet(slot, null);
+		indices.lazySet(HEAD, head + 1);
+		return e;
+	}
+
+	@Override
+	public E peek() {
+		long head = indices.get(HEAD);
+		int slot = (int) head & mask;
+		E e = buffer.get(slot);
+		while(e == null && head != indices.get(TAIL)) {
+			e = buffer.get(slot);
+		}
+		return e;
+	}
+
+	/**
+	 * Like BlockingQueue.drainTo() : poll up to maxElements into c. Only the consumer may call this. Stops early at a
+	 * claimed slot whose element is not visible yet, rather than spinning.
+	 * @return The number of elements drained.
+	 */
+	public int drainTo(Collection<? super E> c, int maxElements) {
+		long head = indices.get(HEAD);
+		int drained = 0;
+		while(drained < maxElements) {
+			int slot = (int) (head + drained) & mask;
+			E e = buffer.get(slot);
+			if(e == null) break;
+			buffer.lazySet(slot, null);
+			c.add(e);
+			++drained;
+		}
+		indices.lazySet(HEAD, head + drained);
+		return drained;
+	}
+
+	@Override
+	public int size() {
+		long size = indices.get(TAIL) - indices.get(HEAD);
+		return (int) Math.max(0, Math.min(size, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Not supported : an iterator can't be made consistent without locking out the producers and consumer.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		throw new UnsupportedOperationException();
+	}
+}
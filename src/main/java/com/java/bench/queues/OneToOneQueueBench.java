@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.queues.QueueStates.ConsumerState;
+
+/**
+ * This benchmark tests how many elements per second 1 producer thread can pass to 1 consumer thread (1P1C) through
+ * different queues. The producer offer()s and the consumer poll()s (or drains batchSize elements at a time) without
+ * ever blocking, so the primary result counts attempts. Please read the QueueCounters "offered" and "polled" results
+ * for the elements that actually went through the queue, and "offerFailed" / "pollFailed" for how often the queue was
+ * full / empty.
+ *
+ * Every JMH group of 2 threads gets its own queue. Please see ManyToOneQueueBench and ManyToManyQueueBench for the
+ * other topologies, and QueueRoundTripBench for latency.
+ *
+ * ConcurrentLinkedQueue and LinkedTransferQueue are unbounded, so they grow for as long as the producer is faster than
+ * the consumer. They are emptied after every iteration, so the backlog can't grow beyond 1 iteration's worth.
+ *
+ * By default:
+ * 1. This test spawns as many groups of 1 producer and 1 consumer as there are cores / 2, rounded up
+ *    (JMH rounds Threads.MAX up to whole groups).
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class OneToOneQueueBench {
+
+	@State(Scope.Group)
+	public static class QueueState extends QueueStates.GroupQueueState {
+		@Param({"ArrayBlockingQueue", "LinkedBlockingQueue", "ConcurrentLinkedQueue", "LinkedTransferQueue",
+				"SpscArrayQueue", "MpscArrayQueue"})
+		String queueType;
+
+		@Override
+		String queueType() {
+			return queueType;
+		}
+	}
+
+	@Benchmark
+	@Group("oneToOne")
+	@GroupThreads(1)
+	public void offer(QueueState queueState, QueueCounters counters) {
+		counters.offer(queueState.queue);
+	}
+
+	@Benchmark
+	@Group("oneToOne")
+	@GroupThreads(1)
+	public void poll(QueueState queueState, ConsumerState consumer, QueueCounters counters) {
+		counters.consume(queueState.queue, consumer.sink, consumer.batchSize);
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.Collection;
+import java.util.Queue;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Producers and consumers never block, so a benchmark invocation may move 0, 1 or (when draining) many elements. These
+ * counters are what actually went through the queue. JMH sums them over all threads and reports them alongside the
+ * primary result, as per unit time in Throughput mode. e.g. "offered" is the number of elements that made it into the
+ * queue per unit time, and "offerFailed" the number of times the queue was full.
+ */
+@AuxCounters
+@State(Scope.Thread)
+public class QueueCounters {
+	public long offered;
+	public long offerFailed;
+	public long polled;
+	public long pollFailed;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		offered = 0;
+		offerFailed = 0;
+		polled = 0;
+		pollFailed = 0;
+	}
+
+	/**
+	 * Offers Queues.ELEMENT once, without waiting if the queue is full.
+	 */
+	void offer(Queue<Integer> queue) {
+		if(queue.offer(Queues.ELEMENT)) {
+			offered++;
+		} else {
+			offerFailed++;
+		}
+	}
+
+	/**
+	 * Polls one element if batchSize is 1, and otherwise drains up to batchSize elements into sink. Doesn't wait if the
+	 * queue is empty.
+	 */
+	void consume(Queue<Integer> queue, Collection<Object> sink, int batchSize) {
+		int consumed;
+		if(batchSize == 1) {
+			consumed = queue.poll() != null ? 1 : 0;
+		} else {
+			consumed = Queues.drain(queue, sink, batchSize);
+		}
+		if(consumed > 0) {
+			polled += consumed;
+		} else {
+			pollFailed++;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Control;
+
+/**
+ * This benchmark tests the latency of passing an element from one thread to another through different queues. The
+ * "ping" thread offers an element to the requests queue and busy-spins until the "pong" thread has polled it and offered
+ * it back on the responses queue. So in SampleTime mode, ping is the round trip latency (2 hops), with percentiles.
+ * Pong mostly finds the requests queue empty, so its results are not meaningful by themselves.
+ *
+ * Only one element is ever in flight, so each queue is only ever used by 1 producer and 1 consumer. That's why the
+ * SpscArrayQueue can be used here too. Both threads spin, so please run this with at least 2 cores per group.
+ *
+ * Waiting threads check Control.stopMeasurement, so that ping doesn't wait forever for a pong that has already stopped.
+ *
+ * By default:
+ * 1. This test spawns as many groups of ping and pong as there are cores / 2, rounded up
+ *    (JMH rounds Threads.MAX up to whole groups).
+ * 2. Throughput : Higher numbers mean better performance.
+ * 3. SampleTime : Lower numbers mean better performance.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class QueueRoundTripBench {
+
+	@State(Scope.Group)
+	public static class QueuePair {
+		@Param({"ArrayBlockingQueue", "LinkedBlockingQueue", "ConcurrentLinkedQueue", "LinkedTransferQueue",
+				"SpscArrayQueue", "MpscArrayQueue"})
+		String queueType;
+
+		Queue<Integer> requests;
+		Queue<Integer> responses;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			//There is never more than 1 element in flight, so the capacity hardly matters.
+			requests = Queues.newQueue(queueType, 16);
+			responses = Queues.newQueue(queueType, 16);
+		}
+
+		//An iteration may stop in the middle of a round trip. Don't let the next one start with a stale element.
+		@TearDown(Level.Iteration)
+		public void clear() {
+			requests.clear();
+			responses.clear();
+		}
+	}
+
+	@Benchmark
+	@Group("roundTrip")
+	@GroupThreads(1)
+	public Integer ping(QueuePair pair, Control control) {
+		while(!pair.requests.offer(Queues.ELEMENT)) {
+			if(control.stopMeasurement) return null;
+		}
+		Integer response;
+		while((response = pair.responses.poll()) == null) {
+			if(control.stopMeasurement) return null;
+		}
+		return response;
+	}
+
+	@Benchmark
+	@Group("roundTrip")
+	@GroupThreads(1)
+	public void pong(QueuePair pair, Control control) {
+		Integer request = pair.requests.poll();
+		if(request == null) return;
+		while(!pair.responses.offer(request)) {
+			if(control.stopMeasurement) return;
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.Collection;
+import java.util.Queue;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The states shared by OneToOneQueueBench, ManyToOneQueueBench and ManyToManyQueueBench. Which queues are safe to
+ * benchmark depends on the number of producers and consumers, so every one of them extends GroupQueueState with its
+ * own list of queueTypes.
+ */
+public final class QueueStates {
+
+	private QueueStates() {
+	}
+
+	/**
+	 * One queue for every JMH group of producers and consumers.
+	 */
+	@State(Scope.Group)
+	public abstract static class GroupQueueState {
+		//Ignored by the unbounded queues.
+		@Param({"1024"})
+		int capacity;
+
+		Queue<Integer> queue;
+
+		/**
+		 * @return The queueType @Param of the subclass
+		 */
+		abstract String queueType();
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			queue = Queues.newQueue(queueType(), capacity);
+		}
+
+		@TearDown(Level.Iteration)
+		public void clear() {
+			queue.clear();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ConsumerState {
+		//1 means poll() one element at a time, more means drain up to that many at a time.
+		@Param({"1", "32"})
+		int batchSize;
+
+		Collection<Object> sink = new Queues.DiscardingCollection();
+	}
+}
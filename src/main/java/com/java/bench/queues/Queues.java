@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+
+/**
+ * What the queue benchmarks have in common : the queues, the element that goes through them, and batched draining.
+ */
+public final class Queues {
+	/**
+	 * The element every producer offers. It is allocated once, so that we measure the queue and not the allocator.
+	 * (Linked queues still allocate a node per element.)
+	 */
+	public static final Integer ELEMENT = Integer.valueOf(42);
+
+	private Queues() {
+	}
+
+	/**
+	 * @param queueType One of ArrayBlockingQueue, LinkedBlockingQueue, ConcurrentLinkedQueue, LinkedTransferQueue,
+	 * SpscArrayQueue or MpscArrayQueue. It is up to the caller to only use SpscArrayQueue with 1 producer and 1
+	 * consumer, and MpscArrayQueue with 1 consumer.
+	 * @param capacity Ignored by ConcurrentLinkedQueue and LinkedTransferQueue, which are unbounded.
+	 */
+	public static Queue<Integer> newQueue(String queueType, int capacity) {
+		if(queueType.equals("ArrayBlockingQueue")) {
+			return new ArrayBlockingQueue<>(capacity);
+		} else if(queueType.equals("LinkedBlockingQueue")) {
+			return new LinkedBlockingQueue<>(capacity);
+		} else if(queueType.equals("ConcurrentLinkedQueue")) {
+			return new ConcurrentLinkedQueue<>();
+		} else if(queueType.equals("LinkedTransferQueue")) {
+			return new LinkedTransferQueue<>();
+		} else if(queueType.equals("SpscArrayQueue")) {
+			return new SpscArrayQueue<>(capacity);
+		} else if(queueType.equals("MpscArrayQueue")) {
+			return new MpscArrayQueue<>(capacity);
+		}
+		throw new IllegalArgumentException("Unknown queue type : " + queueType);
+	}
+
+	/**
+	 * Moves up to maxElements from queue into sink, with the queue's own drainTo() where it has one (BlockingQueues
+	 * take their lock only once for the whole batch) and poll() otherwise.
+	 * @return The number of elements drained.
+	 */
+	public static int drain(Queue<Integer> queue, Collection<? super Integer> sink, int maxElements) {
+		if(queue instanceof BlockingQueue) {
+			return ((BlockingQueue<Integer>) queue).drainTo(sink, maxElements);
+		} else if(queue instanceof SpscArrayQueue) {
+			return ((SpscArrayQueue<Integer>) queue).drainTo(sink, maxElements);
+		} else if(queue instanceof MpscArrayQueue) {
+			return ((MpscArrayQueue<Integer>) queue).drainTo(sink, maxElements);
+		}
+		int drained = 0;
+		while(drained < maxElements) {
+			Integer e = queue.poll();
+			if(e == null) break;
+			sink.add(e);
+			++drained;
+		}
+		return drained;
+	}
+
+	/**
+	 * A Collection to drain into that throws away everything added to it, so that it never grows.
+	 */
+	public static class DiscardingCollection extends AbstractCollection<Object> {
+		//Written by add() so that the JIT can't tell the element is unused.
+		private Object last;
+
+		@Override
+		public boolean add(Object e) {
+			last = e;
+			return true;
+		}
+
+		@Override
+		public Iterator<Object> iterator() {
+			return Collections.emptyIterator();
+		}
+
+		@Override
+		public int size() {
+			return 0;
+		}
+	}
+}
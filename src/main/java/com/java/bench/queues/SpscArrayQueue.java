@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.queues;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free, single-producer single-consumer ring buffer (a Lamport queue, like JCTools' SpscArrayQueue).
+ * Only ONE thread may call offer() and only ONE (other) thread may call poll() / drainTo().
+ *
+ * The producer only writes the tail and the consumer only writes the head, so neither needs a CAS. Each side caches
+ * the last index it read of the other side, and only re-reads it (a cache miss, since the other side is writing it)
+ * when the cached value says the queue is full / empty.
+ *
+ * head and tail are 128 bytes apart (2 cache lines, because of the adjacent line prefetcher), and so are the two
+ * caches, so the producer and consumer don't false share.
+ */
+public class SpscArrayQueue<E> extends AbstractQueue<E> {
+	//Indices into indices and caches, 16 longs = 128 bytes apart.
+	private static final int HEAD = 16;
+	private static final int TAIL = 32;
+	private static final int PADDED_LENGTH = 48;
+
+	private final Object[] buffer;
+	private final int mask;
+	//indices[HEAD] is the next slot to poll, indices[TAIL] the next slot to offer into. They only ever increase.
+	private final AtomicLongArray indices = new AtomicLongArray(PADDED_LENGTH);
+	//caches[HEAD] is the producer's cache of the head, caches[TAIL] is the consumer's cache of the tail.
+	private final long[] caches = new long[PADDED_LENGTH];
+
+	/**
+	 * @param capacity Rounded up to a power of 2.
+	 */
+	public SpscArrayQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		buffer = new Object[size];
+		mask = size - 1;
+	}
+
+	@Override
+	public boolean offer(E e) {
+		if(e == null) throw new NullPointerException();
+		long tail = indices.get(TAIL);
+		if(tail - caches[HEAD] > mask) {
+			caches[HEAD] = indices.get(HEAD);
+			if(tail - caches[HEAD] > mask) return false;
+		}
+		buffer[(int) tail & mask] = e;
+		//Publish the element : the ordered store makes sure the consumer sees the element before the new tail.
+		indices.lazySet(TAIL, tail + 1);
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		long head = indices.get(HEAD);
+		if(head >= caches[TAIL]) {
+			caches[TAIL] = indices.get(TAIL);
+			if(head >= caches[TAIL]) return null;
+		}
+		int slot = (int) head & mask;
+		E e = (E) buffer[slot];
+		buffer[slot] = null;
+		indices.lazySet(HEAD, head + 1);
+		return e;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		long head = indices.get(HEAD);
+		if(head >= indices.get(TAIL)) return null;
+		return (E) buffer[(int) head & mask];
+	}
+
+	/**
+	 * Like BlockingQueue.drainTo() : poll up to maxElements into c. Only the consumer may call this.
+	 * @return The number of elements drained.
+	 */
+	@SuppressWarnings("unchecked")
+	public int drainTo(Collection<? super E> c, int maxElements) {
+		long head = indices.get(HEAD);
+		//Read the tail once for the whole batch. That's the point of draining in batches.
+		long available = Math.min(indices.get(TAIL) - head, maxElements);
+		for(long i = 0; i < available; ++i) {
+			int slot = (int) (head + i) & mask;
+			c.add((E) buffer[slot]);
+			buffer[slot] = null;
+		}
+		indices.lazySet(HEAD, head + available);
+		return (int) available;
+	}
+
+	@Override
+	public int size() {
+		long size = indices.get(TAIL) - indices.get(HEAD);
+		return (int) Math.max(0, Math.min(size, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Not supported : an iterator can't be made consistent without locking out the producer and consumer.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		throw new UnsupportedOperationException();
+	}
+}
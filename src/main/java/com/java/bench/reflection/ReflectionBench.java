@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.reflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how expensive it is to call a method, and to read and write a field, reflectively compared to
+ * directly. e.g. a serializer that doesn't know the classes it serializes at compile time. The ways are :
+ * <ol>
+ * 	<li>direct : plain Java code. This is the baseline.</li>
+ * 	<li>reflectionLookup (methods only) : look the Method up with getMethod() on every call, and invoke it. This is what
+ * 	code that doesn't cache its Methods pays.</li>
+ * 	<li>reflection : Method.invoke() / Field.getInt() / Field.setInt() on a cached Method / Field. The arguments of
+ * 	Method.invoke() are boxed into an Object[], and the result is boxed too.</li>
+ * 	<li>reflectionCold (methods only) : Method.invoke() as it is before inflation (please see below), forked with a
+ * 	JVM that never inflates.</li>
+ * 	<li>reflectionAccessible : the same as reflection, after setAccessible(true), which skips the access checks.</li>
+ * 	<li>methodHandleConstant : a MethodHandle in a static final field. The JIT treats it as a constant and inlines
+ * 	through it.</li>
+ * 	<li>methodHandle : the same MethodHandle in a (non-final) field, which the JIT can't inline through.</li>
+ * 	<li>lambdaMetafactory : a functional interface implemented at run time by LambdaMetafactory, the way lambdas are.
+ * 	After that it is an ordinary interface call. LambdaMetafactory only takes methods, so fields are read and written
+ * 	through their getter and setter. This is what a generated accessor would cost.</li>
+ * </ol>
+ *
+ * Method.invoke() works differently in different JDKs. Up to JDK17, the first 15 calls of a Method go through JNI, after
+ * which it generates bytecode for itself ("inflation", please see -Dsun.reflect.inflationThreshold). JMH's warmup is far
+ * longer than that, so what reflection measures is the inflated Method. methodReflectionCold keeps the JNI accessor of
+ * those first calls for good, by raising the threshold out of reach. From JDK18 on, reflection uses MethodHandles
+ * (JEP 416). Up to JDK21, -Djdk.reflect.useDirectMethodHandle=false brings the old implementation back, so
+ * methodReflectionCold passes that too. On JDK22+ it is gone, and methodReflectionCold is the same as
+ * methodReflection.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class ReflectionBench {
+
+	/**
+	 * The class whose method and field are used reflectively.
+	 */
+	public static class Target {
+		public int value;
+
+		public int compute(int x) {
+			return x * 31 + value;
+		}
+
+		public int getValue() {
+			return value;
+		}
+
+		public void setValue(int value) {
+			this.value = value;
+		}
+	}
+
+	//The functional interfaces that LambdaMetafactory implements. Not generic, so that nothing is boxed.
+	public interface IntMethod {
+		int apply(Target target, int x);
+	}
+
+	public interface IntGetter {
+		int get(Target target);
+	}
+
+	public interface IntSetter {
+		void set(Target target, int value);
+	}
+
+	private static final MethodHandle COMPUTE;
+	private static final MethodHandle VALUE_GETTER;
+	private static final MethodHandle VALUE_SETTER;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			COMPUTE = lookup.findVirtual(Target.class, "compute", MethodType.methodType(int.class, int.class));
+			VALUE_GETTER = lookup.findGetter(Target.class, "value", int.class);
+			VALUE_SETTER = lookup.findSetter(Target.class, "value", int.class);
+		} catch(ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class RNGState {
+		/** We're using a simple XORshift for generating pseudo-random numbers : https://en.wikipedia.org/wiki/Xorshift
+		 * because it is used in the measurement loop.
+		 */
+		BenchRandomUtil rng = new BenchRandomUtil();
+	}
+
+	@State(Scope.Thread)
+	public static class ReflectionState {
+		Target target = new Target();
+
+		Method method;
+		Method accessibleMethod;
+		Field field;
+		Field accessibleField;
+
+		//Not final, so not constants.
+		MethodHandle compute = COMPUTE;
+		MethodHandle valueGetter = VALUE_GETTER;
+		MethodHandle valueSetter = VALUE_SETTER;
+
+		IntMethod lambdaMethod;
+		IntGetter lambdaGetter;
+		IntSetter lambdaSetter;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() throws Throwable {
+			method = Target.class.getMethod("compute", int.class);
+			accessibleMethod = Target.class.getMethod("compute", int.class);
+			accessibleMethod.setAccessible(true);
+			field = Target.class.getField("value");
+			accessibleField = Target.class.getField("value");
+			accessibleField.setAccessible(true);
+
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			lambdaMethod = metafactory(lookup, IntMethod.class, "apply", COMPUTE);
+			lambdaGetter = metafactory(lookup, IntGetter.class, "get",
+					lookup.findVirtual(Target.class, "getValue", MethodType.methodType(int.class)));
+			lambdaSetter = metafactory(lookup, IntSetter.class, "set",
+					lookup.findVirtual(Target.class, "setValue", MethodType.methodType(void.class, int.class)));
+		}
+
+		/**
+		 * Implement functionalInterface, whose only method is called methodName, with implementation. This is what the
+		 * JVM does when it first evaluates a lambda expression.
+		 */
+		private static <T> T metafactory(MethodHandles.Lookup lookup, Class<T> functionalInterface, String methodName,
+				MethodHandle implementation) throws Throwable {
+			MethodType methodType = implementation.type();
+			CallSite site = LambdaMetafactory.metafactory(lookup, methodName, MethodType.methodType(functionalInterface),
+					methodType, implementation, methodType);
+			return functionalInterface.cast(site.getTarget().invoke());
+		}
+	}
+
+	@Benchmark
+	public int methodDirect(RNGState rngState, ReflectionState state) {
+		return state.target.compute(rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public Object methodReflectionLookup(RNGState rngState, ReflectionState state) throws ReflectiveOperationException {
+		return Target.class.getMethod("compute", int.class).invoke(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public Object methodReflection(RNGState rngState, ReflectionState state) throws ReflectiveOperationException {
+		return state.method.invoke(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	@Fork(jvmArgsAppend = {"-Dsun.reflect.noInflation=false", "-Dsun.reflect.inflationThreshold=2147483647",
+			"-Djdk.reflect.useDirectMethodHandle=false"})
+	public Object methodReflectionCold(RNGState rngState, ReflectionState state) throws ReflectiveOperationException {
+		return state.method.invoke(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public Object methodReflectionAccessible(RNGState rngState, ReflectionState state)
+			throws ReflectiveOperationException {
+		return state.accessibleMethod.invoke(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int methodMethodHandleConstant(RNGState rngState, ReflectionState state) throws Throwable {
+		return (int) COMPUTE.invokeExact(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int methodMethodHandle(RNGState rngState, ReflectionState state) throws Throwable {
+		return (int) state.compute.invokeExact(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int methodLambdaMetafactory(RNGState rngState, ReflectionState state) {
+		return state.lambdaMethod.apply(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public int fieldGetDirect(ReflectionState state) {
+		return state.target.value;
+	}
+
+	@Benchmark
+	public int fieldGetReflection(ReflectionState state) throws IllegalAccessException {
+		return state.field.getInt(state.target);
+	}
+
+	@Benchmark
+	public int fieldGetReflectionAccessible(ReflectionState state) throws IllegalAccessException {
+		return state.accessibleField.getInt(state.target);
+	}
+
+	@Benchmark
+	public int fieldGetMethodHandleConstant(ReflectionState state) throws Throwable {
+		return (int) VALUE_GETTER.invokeExact(state.target);
+	}
+
+	@Benchmark
+	public int fieldGetMethodHandle(ReflectionState state) throws Throwable {
+		return (int) state.valueGetter.invokeExact(state.target);
+	}
+
+	@Benchmark
+	public int fieldGetLambdaMetafactory(ReflectionState state) {
+		return state.lambdaGetter.get(state.target);
+	}
+
+	@Benchmark
+	public void fieldSetDirect(RNGState rngState, ReflectionState state) {
+		state.target.value = rngState.rng.getNextXorShiftRN();
+	}
+
+	@Benchmark
+	public void fieldSetReflection(RNGState rngState, ReflectionState state) throws IllegalAccessException {
+		state.field.setInt(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public void fieldSetReflectionAccessible(RNGState rngState, ReflectionState state) throws IllegalAccessException {
+		state.accessibleField.setInt(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public void fieldSetMethodHandleConstant(RNGState rngState, ReflectionState state) throws Throwable {
+		VALUE_SETTER.invokeExact(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public void fieldSetMethodHandle(RNGState rngState, ReflectionState state) throws Throwable {
+		state.valueSetter.invokeExact(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+	@Benchmark
+	public void fieldSetLambdaMetafactory(RNGState rngState, ReflectionState state) {
+		state.lambdaSetter.set(state.target, rngState.rng.getNextXorShiftRN());
+	}
+
+}
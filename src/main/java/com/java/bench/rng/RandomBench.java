@@ -32,7 +32,9 @@ import com.java.bench.util.rng.BenchRandomUtil;
 
 /**
  * This benchmark tests how frequently different Random Number Generators (RNGs) can give us integers.
- * We test the algorithms that have been exposed in BenchRandom.
+ * We test the algorithms that have been exposed in BenchRandom. Please see RandomBulkBench for filling arrays,
+ * SharedRandomBench for many threads sharing one generator, and RandomGeneratorBench (JDK17+) for the
+ * java.util.random algorithms.
  * Please bear in mind that this is <strong>only a performance test</strong>. The quality of randomness is not being measured.
  *
  * By default:
@@ -72,4 +74,36 @@ public class RandomBench {
 	public void testSecureRandom(RNGState rngState, Blackhole bh) {
 		bh.consume(rngState.rng.getNextSecureRandom());
 	}
+
+	/**
+	 *	This benchmark tests how frequently ThreadLocalRandom can generate integers.
+	 */
+	@Benchmark
+	public void testThreadLocalRandom(RNGState rngState, Blackhole bh) {
+		bh.consume(rngState.rng.getNextThreadLocalRandomInt());
+	}
+
+	/**
+	 *	This benchmark tests how frequently SplittableRandom can generate integers.
+	 */
+	@Benchmark
+	public void testSplittableRandom(RNGState rngState, Blackhole bh) {
+		bh.consume(rngState.rng.getNextSplittableRandomInt());
+	}
+
+	/**
+	 *	This benchmark tests how frequently xorshift128+ can generate integers.
+	 */
+	@Benchmark
+	public void testXorShift128Plus(RNGState rngState, Blackhole bh) {
+		bh.consume(rngState.rng.getNextXorShift128PlusRN());
+	}
+
+	/**
+	 *	This benchmark tests how frequently xoshiro256** can generate integers.
+	 */
+	@Benchmark
+	public void testXoshiro256StarStar(RNGState rngState, Blackhole bh) {
+		bh.consume(rngState.rng.getNextXoshiro256StarStarRN());
+	}
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.rng;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how long it takes to get ARRAY_SIZE random ints at once, e.g. to fill a sample buffer. Every
+ * generator is compared with a loop calling it once per element :
+ * <ol>
+ * 	<li>fillLoop* : a loop over an existing int[], calling nextInt() (or BenchRandomUtil) for every element.</li>
+ * 	<li>setAllRandom : Arrays.setAll() on an existing int[], i.e. the same loop through a lambda.</li>
+ * 	<li>ints* : ints(ARRAY_SIZE).toArray(), which allocates a new array every time (and the stream machinery).</li>
+ * 	<li>nextBytes* : nextBytes() into an existing byte[] of 4 * ARRAY_SIZE, i.e. the same number of random bits.
+ * 	SecureRandom has a high cost per call, so it is much cheaper per byte in bulk.</li>
+ * </ol>
+ *
+ * By default:
+ * 1. This test spawns only 1 thread.
+ * 2. Lower numbers mean better performance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(1)
+public class RandomBulkBench {
+
+	@State(Scope.Thread)
+	public static class BulkState {
+		@Param({"16", "1024", "65536"})
+		int ARRAY_SIZE;
+
+		BenchRandomUtil rng = new BenchRandomUtil();
+		Random random = new Random();
+		SplittableRandom splittableRandom = new SplittableRandom();
+		SecureRandom secureRandom = new SecureRandom();
+
+		int[] ints;
+		byte[] bytes;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			ints = new int[ARRAY_SIZE];
+			bytes = new byte[4 * ARRAY_SIZE];
+		}
+	}
+
+	@Benchmark
+	public int[] fillLoopRandom(BulkState state) {
+		int[] ints = state.ints;
+		for(int i = 0; i < ints.length; ++i) {
+			ints[i] = state.random.nextInt();
+		}
+		return ints;
+	}
+
+	@Benchmark
+	public int[] fillLoopThreadLocalRandom(BulkState state) {
+		int[] ints = state.ints;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for(int i = 0; i < ints.length; ++i) {
+			ints[i] = random.nextInt();
+		}
+		return ints;
+	}
+
+	@Benchmark
+	public int[] fillLoopSplittableRandom(BulkState state) {
+		int[] ints = state.ints;
+		for(int i = 0; i < ints.length; ++i) {
+			ints[i] = state.splittableRandom.nextInt();
+		}
+		return ints;
+	}
+
+	@Benchmark
+	public int[] fillLoopXorShift(BulkState state) {
+		int[] ints = state.ints;
+		for(int i = 0; i < ints.length; ++i) {
+			ints[i] = state.rng.getNextXorShiftRN();
+		}
+		return ints;
+	}
+
+	@Benchmark
+	public int[] fillLoopXoshiro256StarStar(BulkState state) {
+		int[] ints = state.ints;
+		for(int i = 0; i < ints.length; ++i) {
+			ints[i] = state.rng.getNextXoshiro256StarStarRN();
+		}
+		return ints;
+	}
+
+	@Benchmark
+	public int[] setAllRandom(BulkState state) {
+		Random random = state.random;
+		Arrays.setAll(state.ints, i -> random.nextInt());
+		return state.ints;
+	}
+
+	@Benchmark
+	public int[] intsRandom(BulkState state) {
+		return state.random.ints(state.ARRAY_SIZE).toArray();
+	}
+
+	@Benchmark
+	public int[] intsThreadLocalRandom(BulkState state) {
+		return ThreadLocalRandom.current().ints(state.ARRAY_SIZE).toArray();
+	}
+
+	@Benchmark
+	public int[] intsSplittableRandom(BulkState state) {
+		return state.splittableRandom.ints(state.ARRAY_SIZE).toArray();
+	}
+
+	@Benchmark
+	public byte[] nextBytesRandom(BulkState state) {
+		state.random.nextBytes(state.bytes);
+		return state.bytes;
+	}
+
+	@Benchmark
+	public byte[] nextBytesSecureRandom(BulkState state) {
+		state.secureRandom.nextBytes(state.bytes);
+		return state.bytes;
+	}
+
+}
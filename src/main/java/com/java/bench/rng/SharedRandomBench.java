@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.rng;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.java.bench.util.ThreadScalingRunner;
+
+/**
+ * This benchmark tests how random number generation scales when many threads draw from it at the same time, e.g.
+ * request threads deciding whether to sample a request.
+ * <ol>
+ * 	<li>sharedRandom : one java.util.Random shared by all threads. Its seed is an AtomicLong which every nextInt()
+ * 	updates with a CAS, so the threads fight over that one cache line and retry when they lose.</li>
+ * 	<li>sharedSynchronizedSplittableRandom : one SplittableRandom (which is not thread-safe) behind a lock.</li>
+ * 	<li>perThreadRandom : a java.util.Random per thread, so the CAS always succeeds, but it is still a CAS.</li>
+ * 	<li>threadLocalRandom : ThreadLocalRandom, whose seed is a plain field of the Thread.</li>
+ * 	<li>perThreadSplittableRandom : a SplittableRandom per thread, split() from a shared one, the way a
+ * 	SplittableRandom is meant to be handed to other threads.</li>
+ * </ol>
+ *
+ * To see how these scale with the number of threads, please run the main() method. It runs every benchmark with 1, 2,
+ * 4, ... threads up to the number of cores, and twice that.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+public class SharedRandomBench {
+
+	@State(Scope.Benchmark)
+	public static class SharedState {
+		Random random = new Random();
+		SplittableRandom splittableRandom = new SplittableRandom();
+	}
+
+	@State(Scope.Thread)
+	public static class PerThreadState {
+		Random random = new Random();
+		SplittableRandom splittableRandom;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup(SharedState sharedState) {
+			//split() changes the state of the SplittableRandom it is called on, so the threads take turns.
+			synchronized(sharedState.splittableRandom) {
+				splittableRandom = sharedState.splittableRandom.split();
+			}
+		}
+	}
+
+	@Benchmark
+	public int sharedRandom(SharedState sharedState) {
+		return sharedState.random.nextInt();
+	}
+
+	@Benchmark
+	public int sharedSynchronizedSplittableRandom(SharedState sharedState) {
+		synchronized(sharedState.splittableRandom) {
+			return sharedState.splittableRandom.nextInt();
+		}
+	}
+
+	@Benchmark
+	public int perThreadRandom(PerThreadState perThreadState) {
+		return perThreadState.random.nextInt();
+	}
+
+	@Benchmark
+	public int threadLocalRandom() {
+		return ThreadLocalRandom.current().nextInt();
+	}
+
+	@Benchmark
+	public int perThreadSplittableRandom(PerThreadState perThreadState) {
+		return perThreadState.splittableRandom.nextInt();
+	}
+
+	/**
+	 * Runs every benchmark with 1, 2, 4, ... threads, up to the number of cores and twice that (please see
+	 * ThreadScalingRunner). Any other JMH options may be passed in args. e.g.
+	 * $ java -cp target/javabench.jar com.java.bench.rng.SharedRandomBench -f 1 -wi 3 -i 5
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException,
+			InterruptedException {
+		Options opts = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(SharedRandomBench.class.getName() + ".")
+				.build();
+		ThreadScalingRunner.run(opts, ThreadScalingRunner.threadCounts(Runtime.getRuntime().availableProcessors()));
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.sort;
+
+import java.util.Comparator;
+
+/**
+ * A record with a compound sort key : orders are sorted by customerId, and then by timestamp. There are many orders
+ * per customer, so the second key is compared often.
+ */
+public final class Order {
+	/**
+	 * What a comparator chain looks like if you don't mind boxing : every comparison boxes both customerIds and both
+	 * timestamps (unless escape analysis gets rid of them).
+	 */
+	public static final Comparator<Order> BOXED_COMPARATOR_CHAIN =
+			Comparator.comparing(Order::getCustomerId).thenComparing(Order::getTimestamp);
+
+	/**
+	 * The same chain with the primitive specializations.
+	 */
+	public static final Comparator<Order> COMPARATOR_CHAIN =
+			Comparator.comparingInt(Order::getCustomerId).thenComparingLong(Order::getTimestamp);
+
+	/**
+	 * The same order, hand-written.
+	 */
+	public static final Comparator<Order> HAND_WRITTEN_COMPARATOR = new Comparator<Order>() {
+		@Override
+		public int compare(Order o1, Order o2) {
+			if(o1.customerId != o2.customerId) {
+				return o1.customerId < o2.customerId ? -1 : 1;
+			}
+			return Long.compare(o1.timestamp, o2.timestamp);
+		}
+	};
+
+	private final int customerId;
+	private final long timestamp;
+	private final int amount;
+
+	public Order(int customerId, long timestamp, int amount) {
+		this.customerId = customerId;
+		this.timestamp = timestamp;
+		this.amount = amount;
+	}
+
+	public int getCustomerId() {
+		return customerId;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public int getAmount() {
+		return amount;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.sort;
+
+import java.util.Arrays;
+
+/**
+ * A least significant digit radix sort for int[] (https://en.wikipedia.org/wiki/Radix_sort). It makes 4 passes of 8
+ * bits each over the array, each pass a stable counting sort on one byte of the keys, so it is O(n) whatever order the
+ * keys are in. It never compares keys, so it only works for primitive keys. It needs a buffer as long as the array.
+ */
+public final class RadixSort {
+	private static final int BITS_PER_DIGIT = 8;
+	private static final int RADIX = 1 << BITS_PER_DIGIT;
+	private static final int DIGIT_MASK = RADIX - 1;
+
+	private RadixSort() {
+	}
+
+	/**
+	 * Sorts a in ascending order, allocating a buffer.
+	 */
+	public static void sort(int[] a) {
+		sort(a, new int[a.length]);
+	}
+
+	/**
+	 * Sorts a in ascending order.
+	 * @param buffer Scratch space, at least as long as a. Pass the same one in every time to avoid allocating.
+	 */
+	public static void sort(int[] a, int[] buffer) {
+		if(buffer.length < a.length) {
+			throw new IllegalArgumentException("The buffer (" + buffer.length + ") is shorter than the array ("
+					+ a.length + ")");
+		}
+		if(a.length < 2) return;
+
+		int[] from = a;
+		int[] to = buffer;
+		int[] offsets = new int[RADIX];
+		for(int shift = 0; shift < Integer.SIZE; shift += BITS_PER_DIGIT) {
+			Arrays.fill(offsets, 0);
+			for(int i = 0; i < a.length; ++i) {
+				offsets[digit(from[i], shift)]++;
+			}
+			//If every key has the same digit, this pass wouldn't move anything.
+			if(offsets[digit(from[0], shift)] == a.length) continue;
+
+			//Turn the counts into the offset of the first key with each digit.
+			int offset = 0;
+			for(int d = 0; d < RADIX; ++d) {
+				int count = offsets[d];
+				offsets[d] = offset;
+				offset += count;
+			}
+			for(int i = 0; i < a.length; ++i) {
+				int key = from[i];
+				to[offsets[digit(key, shift)]++] = key;
+			}
+			int[] swap = from;
+			from = to;
+			to = swap;
+		}
+		if(from != a) {
+			System.arraycopy(from, 0, a, 0, a.length);
+		}
+	}
+
+	/**
+	 * The digit of value at shift. Flipping the sign bit makes negative numbers sort before positive ones.
+	 */
+	private static int digit(int value, int shift) {
+		return ((value ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK;
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how long it takes to sort a batch of size keys, depending on what the keys are in and how they
+ * are compared :
+ * <ol>
+ * 	<li>int[] : Arrays.sort() (a dual-pivot quicksort), Arrays.parallelSort() and RadixSort.</li>
+ * 	<li>Integer[] and List&lt;Integer&gt; : Arrays.sort(), Arrays.parallelSort() and Collections.sort() (TimSort). Every
+ * 	comparison dereferences two Integers. They are allocated one after another in the order of the input, so they
+ * 	start out next to each other in memory. But as the sort moves them around (e.g. on random input), neighbouring
+ * 	references point further and further apart.</li>
+ * 	<li>Orders, sorted by customerId and then timestamp : Collections.sort() with a Comparator.comparing() chain of
+ * 	boxed keys, a comparingInt().thenComparingLong() chain and a hand-written Comparator, and Arrays.parallelSort()
+ * 	with the hand-written Comparator.</li>
+ * </ol>
+ *
+ * The keys are random numbers from BenchRandomUtil, arranged according to presortedness : random, sorted, reversed or
+ * almostSorted (sorted, and then 1% of the keys swapped with random others). TimSort finds runs that are already in
+ * order, so it is very fast on sorted and reversed input.
+ *
+ * The input must not be sorted in place, or every operation after the first would sort sorted keys. So every benchmark
+ * sorts a copy, and the copy* benchmarks measure just the copying. Please subtract them.
+ *
+ * Arrays.parallelSort() sorts arrays of up to 8192 elements sequentially, and otherwise uses the common ForkJoinPool
+ * (number of cores - 1 threads). To give it the whole machine, this benchmark runs only 1 thread.
+ *
+ * By default:
+ * 1. This test spawns 1 thread.
+ * 2. Lower numbers mean better performance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class SortBench {
+
+	@State(Scope.Thread)
+	public static class DataState {
+		@Param({"1000", "100000", "1000000"})
+		int size;
+
+		@Param({"random", "sorted", "reversed", "almostSorted"})
+		String presortedness;
+
+		int[] ints;
+		Integer[] integers;
+		List<Integer> integerList;
+		List<Order> orders;
+		//For RadixSort, so that it doesn't allocate
+		int[] radixBuffer;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			BenchRandomUtil rng = new BenchRandomUtil(42);
+
+			ints = new int[size];
+			for(int i = 0; i < size; ++i) {
+				ints[i] = rng.getNextXorShiftRN();
+			}
+			arrange(ints, rng);
+			integers = new Integer[size];
+			for(int i = 0; i < size; ++i) {
+				integers[i] = ints[i];
+			}
+			integerList = new ArrayList<>(Arrays.asList(integers));
+			radixBuffer = new int[size];
+
+			Order[] orderArray = new Order[size];
+			for(int i = 0; i < size; ++i) {
+				//1024 customers, so that there are many orders per customer
+				int customerId = rng.getNextXorShiftRN() & 1023;
+				long timestamp = ((long) rng.getNextXorShiftRN() << 32) | (rng.getNextXorShiftRN() & 0xFFFFFFFFL);
+				orderArray[i] = new Order(customerId, timestamp, rng.getNextXorShiftRN());
+			}
+			arrange(orderArray, Order.HAND_WRITTEN_COMPARATOR, rng);
+			orders = new ArrayList<>(Arrays.asList(orderArray));
+		}
+
+		private void arrange(int[] keys, BenchRandomUtil rng) {
+			if(presortedness.equals("random")) {
+				return;
+			}
+			Arrays.sort(keys);
+			if(presortedness.equals("sorted")) {
+				return;
+			} else if(presortedness.equals("reversed")) {
+				for(int i = 0, j = keys.length - 1; i < j; ++i, --j) {
+					int swap = keys[i];
+					keys[i] = keys[j];
+					keys[j] = swap;
+				}
+			} else if(presortedness.equals("almostSorted")) {
+				for(int swaps = Math.max(1, keys.length / 100); swaps > 0; --swaps) {
+					int i = (rng.getNextXorShiftRN() >>> 1) % keys.length;
+					int j = (rng.getNextXorShiftRN() >>> 1) % keys.length;
+					int swap = keys[i];
+					keys[i] = keys[j];
+					keys[j] = swap;
+				}
+			} else {
+				throw new IllegalArgumentException("Unknown presortedness : " + presortedness);
+			}
+		}
+
+		private <T> void arrange(T[] keys, Comparator<? super T> comparator, BenchRandomUtil rng) {
+			if(presortedness.equals("random")) {
+				return;
+			}
+			Arrays.sort(keys, comparator);
+			if(presortedness.equals("sorted")) {
+				return;
+			} else if(presortedness.equals("reversed")) {
+				Collections.reverse(Arrays.asList(keys));
+			} else if(presortedness.equals("almostSorted")) {
+				for(int swaps = Math.max(1, keys.length / 100); swaps > 0; --swaps) {
+					int i = (rng.getNextXorShiftRN() >>> 1) % keys.length;
+					int j = (rng.getNextXorShiftRN() >>> 1) % keys.length;
+					T swap = keys[i];
+					keys[i] = keys[j];
+					keys[j] = swap;
+				}
+			} else {
+				throw new IllegalArgumentException("Unknown presortedness : " + presortedness);
+			}
+		}
+	}
+
+	@Benchmark
+	public int[] copyInts(DataState state) {
+		return state.ints.clone();
+	}
+
+	@Benchmark
+	public int[] intArraySort(DataState state) {
+		int[] keys = state.ints.clone();
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	@Benchmark
+	public int[] intArrayParallelSort(DataState state) {
+		int[] keys = state.ints.clone();
+		Arrays.parallelSort(keys);
+		return keys;
+	}
+
+	@Benchmark
+	public int[] intArrayRadixSort(DataState state) {
+		int[] keys = state.ints.clone();
+		RadixSort.sort(keys, state.radixBuffer);
+		return keys;
+	}
+
+	@Benchmark
+	public Integer[] copyIntegers(DataState state) {
+		return state.integers.clone();
+	}
+
+	@Benchmark
+	public Integer[] integerArraySort(DataState state) {
+		Integer[] keys = state.integers.clone();
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	@Benchmark
+	public Integer[] integerArrayParallelSort(DataState state) {
+		Integer[] keys = state.integers.clone();
+		Arrays.parallelSort(keys);
+		return keys;
+	}
+
+	@Benchmark
+	public List<Integer> copyIntegerList(DataState state) {
+		return new ArrayList<>(state.integerList);
+	}
+
+	@Benchmark
+	public List<Integer> integerListSort(DataState state) {
+		List<Integer> keys = new ArrayList<>(state.integerList);
+		Collections.sort(keys);
+		return keys;
+	}
+
+	@Benchmark
+	public List<Order> copyOrders(DataState state) {
+		return new ArrayList<>(state.orders);
+	}
+
+	@Benchmark
+	public List<Order> ordersBoxedComparatorChain(DataState state) {
+		List<Order> orders = new ArrayList<>(state.orders);
+		Collections.sort(orders, Order.BOXED_COMPARATOR_CHAIN);
+		return orders;
+	}
+
+	@Benchmark
+	public List<Order> ordersComparatorChain(DataState state) {
+		List<Order> orders = new ArrayList<>(state.orders);
+		Collections.sort(orders, Order.COMPARATOR_CHAIN);
+		return orders;
+	}
+
+	@Benchmark
+	public List<Order> ordersHandWrittenComparator(DataState state) {
+		List<Order> orders = new ArrayList<>(state.orders);
+		Collections.sort(orders, Order.HAND_WRITTEN_COMPARATOR);
+		return orders;
+	}
+
+	@Benchmark
+	public Order[] ordersParallelSort(DataState state) {
+		Order[] orders = state.orders.toArray(new Order[state.size]);
+		Arrays.parallelSort(orders, Order.HAND_WRITTEN_COMPARATOR);
+		return orders;
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.streams;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A hand-written fork/join aggregation over a range of an int[]. Ranges longer than threshold are split in two : the
+ * left half is forked (another worker may steal it) while this thread computes the right half, and then the two
+ * results are combined. Please see the implementations below.
+ */
+public abstract class RangeTask<R> extends RecursiveTask<R> {
+	private static final long serialVersionUID = 1L;
+
+	protected final int[] values;
+	private final int from;
+	private final int to;
+	protected final int threshold;
+
+	protected RangeTask(int[] values, int from, int to, int threshold) {
+		this.values = values;
+		this.from = from;
+		this.to = to;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Aggregate values[from] ... values[to - 1] in this thread.
+	 */
+	protected abstract R computeDirectly(int from, int to);
+
+	protected abstract R combine(R left, R right);
+
+	protected abstract RangeTask<R> newTask(int from, int to);
+
+	@Override
+	protected R compute() {
+		if(to - from <= threshold) {
+			return computeDirectly(from, to);
+		}
+		int middle = (from + to) >>> 1;
+		RangeTask<R> left = newTask(from, middle);
+		left.fork();
+		R right = newTask(middle, to).compute();
+		return combine(left.join(), right);
+	}
+
+	/**
+	 * The sum of the values.
+	 */
+	public static class Sum extends RangeTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		public Sum(int[] values, int from, int to, int threshold) {
+			super(values, from, to, threshold);
+		}
+
+		@Override
+		protected Long computeDirectly(int from, int to) {
+			long sum = 0;
+			for(int i = from; i < to; ++i) {
+				sum += values[i];
+			}
+			return sum;
+		}
+
+		@Override
+		protected Long combine(Long left, Long right) {
+			return left + right;
+		}
+
+		@Override
+		protected RangeTask<Long> newTask(int from, int to) {
+			return new Sum(values, from, to, threshold);
+		}
+	}
+
+	/**
+	 * The sum of the squares of the even values.
+	 */
+	public static class SumOfEvenSquares extends RangeTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		public SumOfEvenSquares(int[] values, int from, int to, int threshold) {
+			super(values, from, to, threshold);
+		}
+
+		@Override
+		protected Long computeDirectly(int from, int to) {
+			long sum = 0;
+			for(int i = from; i < to; ++i) {
+				int value = values[i];
+				if((value & 1) == 0) {
+					sum += (long) value * value;
+				}
+			}
+			return sum;
+		}
+
+		@Override
+		protected Long combine(Long left, Long right) {
+			return left + right;
+		}
+
+		@Override
+		protected RangeTask<Long> newTask(int from, int to) {
+			return new SumOfEvenSquares(values, from, to, threshold);
+		}
+	}
+
+	/**
+	 * The number of values in each of numBuckets buckets. A value goes into bucket (value &amp; (numBuckets - 1)), so
+	 * numBuckets MUST BE 2^n.
+	 */
+	public static class CountByBucket extends RangeTask<long[]> {
+		private static final long serialVersionUID = 1L;
+		private final int numBuckets;
+
+		public CountByBucket(int[] values, int from, int to, int threshold, int numBuckets) {
+			super(values, from, to, threshold);
+			this.numBuckets = numBuckets;
+		}
+
+		@Override
+		protected long[] computeDirectly(int from, int to) {
+			long[] counts = new long[numBuckets];
+			for(int i = from; i < to; ++i) {
+				counts[values[i] & (numBuckets - 1)]++;
+			}
+			return counts;
+		}
+
+		@Override
+		protected long[] combine(long[] left, long[] right) {
+			for(int i = 0; i < numBuckets; ++i) {
+				left[i] += right[i];
+			}
+			return left;
+		}
+
+		@Override
+		protected RangeTask<long[]> newTask(int from, int to) {
+			return new CountByBucket(values, from, to, threshold, numBuckets);
+		}
+	}
+}
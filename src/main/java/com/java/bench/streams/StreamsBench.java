@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.util.rng.BenchRandomUtil;
+
+/**
+ * This benchmark tests how long it takes to aggregate DATA_SIZE numbers with streams, compared to loops. There are 3
+ * aggregations :
+ * <ol>
+ * 	<li>sum* : the sum of the numbers.</li>
+ * 	<li>group* : how many of the numbers fall into each of NUM_BUCKETS buckets. The streams collect groupingBy() into
+ * 	a Map, the loop and RecursiveTask count into a long[] (which is what you would write by hand).</li>
+ * 	<li>filterMapReduce* : the sum of the squares of the even numbers.</li>
+ * </ol>
+ * Each of which is done with :
+ * <ol>
+ * 	<li>Loop : a for loop over an int[].</li>
+ * 	<li>Stream : a sequential Stream&lt;Integer&gt; of a List&lt;Integer&gt;, so everything is boxed.</li>
+ * 	<li>IntStream : a sequential IntStream of the int[] (no boxing). (Not for group*, which needs the boxed keys
+ * 	anyway.)</li>
+ * 	<li>ParallelStream : the IntStream (or for group*, the Stream) in parallel, on the common ForkJoinPool, which has
+ * 	(number of cores - 1) threads plus the calling thread.</li>
+ * 	<li>CustomPool : the same parallel stream, run in a ForkJoinPool of our own with as many threads as cores. A
+ * 	parallel stream started from inside a ForkJoinPool runs in that pool (an implementation detail, but a well known
+ * 	one).</li>
+ * 	<li>RecursiveTask : a hand-written fork/join task (please see RangeTask) on the common ForkJoinPool, which splits
+ * 	the array down to (DATA_SIZE / (4 * parallelism)) numbers, like parallel streams do.</li>
+ * </ol>
+ *
+ * Parallelism has a fixed cost (waking up the workers, splitting, combining), so it only pays off above some DATA_SIZE.
+ * To find it for the cores you have, compare the Loop or IntStream results with the parallel ones across DATA_SIZEs.
+ *
+ * By default:
+ * 1. This test spawns 1 thread, so that the parallel versions have the rest of the machine.
+ * 2. Lower numbers mean better performance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class StreamsBench {
+	//MUST BE 2^n since our modulo operation depends on it.
+	private static final int NUM_BUCKETS = 16;
+
+	@State(Scope.Thread)
+	public static class DataState {
+		//The number of numbers to aggregate. 2^n-1 like Lookup's DATA_SIZE.
+		@Param({"255", "8191", "32767", "1048575"})
+		int DATA_SIZE;
+
+		int[] values;
+		List<Integer> boxedValues;
+		//For RecursiveTask : ranges at most this long are aggregated without splitting any further.
+		int threshold;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			BenchRandomUtil rng = new BenchRandomUtil(42);
+			values = new int[DATA_SIZE];
+			boxedValues = new ArrayList<>(DATA_SIZE);
+			for(int i = 0; i < DATA_SIZE; ++i) {
+				values[i] = rng.getNextXorShiftRN();
+				boxedValues.add(values[i]);
+			}
+			threshold = Math.max(1, DATA_SIZE / (4 * ForkJoinPool.getCommonPoolParallelism()));
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class PoolState {
+		ForkJoinPool pool;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public long sumLoop(DataState state) {
+		long sum = 0;
+		for(int value : state.values) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long sumStream(DataState state) {
+		return state.boxedValues.stream().reduce(0L, (sum, value) -> sum + value, Long::sum);
+	}
+
+	@Benchmark
+	public long sumIntStream(DataState state) {
+		return Arrays.stream(state.values).asLongStream().sum();
+	}
+
+	@Benchmark
+	public long sumParallelStream(DataState state) {
+		return Arrays.stream(state.values).parallel().asLongStream().sum();
+	}
+
+	@Benchmark
+	public long sumCustomPool(DataState state, PoolState poolState) {
+		return poolState.pool.submit(() -> Arrays.stream(state.values).parallel().asLongStream().sum()).join();
+	}
+
+	@Benchmark
+	public long sumRecursiveTask(DataState state) {
+		return ForkJoinPool.commonPool().invoke(
+				new RangeTask.Sum(state.values, 0, state.values.length, state.threshold));
+	}
+
+	@Benchmark
+	public long[] groupLoop(DataState state) {
+		long[] counts = new long[NUM_BUCKETS];
+		for(int value : state.values) {
+			counts[value & (NUM_BUCKETS - 1)]++;
+		}
+		return counts;
+	}
+
+	@Benchmark
+	public Map<Integer, Long> groupStream(DataState state) {
+		return state.boxedValues.stream()
+				.collect(Collectors.groupingBy(value -> value & (NUM_BUCKETS - 1), Collectors.counting()));
+	}
+
+	@Benchmark
+	public Map<Integer, Long> groupParallelStream(DataState state) {
+		return state.boxedValues.parallelStream()
+				.collect(Collectors.groupingBy(value -> value & (NUM_BUCKETS - 1), Collectors.counting()));
+	}
+
+	@Benchmark
+	public Map<Integer, Long> groupCustomPool(DataState state, PoolState poolState) {
+		return poolState.pool.submit(() -> state.boxedValues.parallelStream()
+				.collect(Collectors.groupingBy(value -> value & (NUM_BUCKETS - 1), Collectors.counting()))).join();
+	}
+
+	@Benchmark
+	public long[] groupRecursiveTask(DataState state) {
+		return ForkJoinPool.commonPool().invoke(
+				new RangeTask.CountByBucket(state.values, 0, state.values.length, state.threshold, NUM_BUCKETS));
+	}
+
+	@Benchmark
+	public long filterMapReduceLoop(DataState state) {
+		long sum = 0;
+		for(int value : state.values) {
+			if((value & 1) == 0) {
+				sum += (long) value * value;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long filterMapReduceStream(DataState state) {
+		return state.boxedValues.stream()
+				.filter(value -> (value & 1) == 0)
+				.map(value -> (long) value * value)
+				.reduce(0L, Long::sum);
+	}
+
+	@Benchmark
+	public long filterMapReduceIntStream(DataState state) {
+		return Arrays.stream(state.values)
+				.filter(value -> (value & 1) == 0)
+				.mapToLong(value -> (long) value * value)
+				.sum();
+	}
+
+	@Benchmark
+	public long filterMapReduceParallelStream(DataState state) {
+		return Arrays.stream(state.values).parallel()
+				.filter(value -> (value & 1) == 0)
+				.mapToLong(value -> (long) value * value)
+				.sum();
+	}
+
+	@Benchmark
+	public long filterMapReduceCustomPool(DataState state, PoolState poolState) {
+		return poolState.pool.submit(() -> Arrays.stream(state.values).parallel()
+				.filter(value -> (value & 1) == 0)
+				.mapToLong(value -> (long) value * value)
+				.sum()).join();
+	}
+
+	@Benchmark
+	public long filterMapReduceRecursiveTask(DataState state) {
+		return ForkJoinPool.commonPool().invoke(
+				new RangeTask.SumOfEvenSquares(state.values, 0, state.values.length, state.threshold));
+	}
+
+}
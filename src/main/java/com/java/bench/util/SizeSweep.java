@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.java.bench.util.environ.Environment;
+
+/**
+ * Runs a benchmark for data sizes growing geometrically from well inside the L1 cache to well beyond the L3 cache, and
+ * prints a table of the throughput at each size, under the cache sizes of the Environment. The throughput drops where the
+ * data stops fitting in a cache, and that's where the interesting differences between data structures are. So the table
+ * also marks the smallest cache that each size fits in, at a given number of bytes per entry.
+ */
+public final class SizeSweep {
+	/**
+	 * The sizes swept by default : 2^10-1, 2^12-1, ... 2^24-1 (2^n-1, because that's what our modulo operations need).
+	 */
+	public static final int MIN_BITS = 10;
+	public static final int MAX_BITS = 24;
+	public static final int BITS_STEP = 2;
+
+	private SizeSweep() {
+	}
+
+	public static String[] defaultSizes() {
+		List<String> sizes = new ArrayList<>();
+		for(int bits = MIN_BITS; bits <= MAX_BITS; bits += BITS_STEP) {
+			sizes.add(Integer.toString((1 << bits) - 1));
+		}
+		return sizes.toArray(new String[0]);
+	}
+
+	/**
+	 * @param benchmark The benchmark class to run.
+	 * @param sizeParam The name of its size @Param. If args set it (e.g. -p DATA_SIZE=33554431), those sizes are swept
+	 * instead of the default ones.
+	 * @param bytesPerEntry The bytes per entry to mark the caches at, e.g. those of the benchmark's primitive data
+	 * structure. Boxed data structures are bigger, so they outgrow every cache at a smaller size than marked.
+	 * @param args Any other JMH options.
+	 */
+	public static void run(Class<?> benchmark, String sizeParam, int bytesPerEntry, String[] args) throws RunnerException,
+			CommandLineOptionException, IOException, InterruptedException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(commandLineOptions).include(benchmark.getName() + ".");
+		if(!commandLineOptions.getParameter(sizeParam).hasValue()) {
+			builder.param(sizeParam, defaultSizes());
+		}
+		Options opts = builder.build();
+
+		//ops/s of each benchmark and its other params, by size
+		Map<String, Map<String, Double>> table = new LinkedHashMap<>();
+		List<String> sizes = new ArrayList<>();
+		String unit = "";
+		for(RunResult result : new Runner(opts).run()) {
+			String name = result.getParams().getBenchmark();
+			StringBuilder row = new StringBuilder(name.substring(name.lastIndexOf('.') + 1));
+			for(String key : result.getParams().getParamsKeys()) {
+				if(!key.equals(sizeParam)) row.append(' ').append(key).append('=').append(result.getParams().getParam(key));
+			}
+			String size = result.getParams().getParam(sizeParam);
+			if(!sizes.contains(size)) sizes.add(size);
+			unit = result.getPrimaryResult().getScoreUnit();
+			table.computeIfAbsent(row.toString(), k -> new LinkedHashMap<>())
+					.put(size, result.getPrimaryResult().getScore());
+		}
+
+		Environment environment = new Environment();
+		System.out.println(String.format("Caches : L1d %s, L2 %s, L3 %s. Processor : %s", environment.l1dCacheSize,
+				environment.l2CacheSize, environment.l3CacheSize, environment.processorType));
+		StringBuilder header = new StringBuilder(String.format("%-60s",
+				"Benchmark (" + unit + ") \\ " + sizeParam));
+		for(String size : sizes) {
+			header.append(String.format(" %14s", size));
+		}
+		System.out.println(header);
+		StringBuilder fitsIn = new StringBuilder(String.format("%-60s", "Fits in (at " + bytesPerEntry + " B/entry)"));
+		for(String size : sizes) {
+			fitsIn.append(String.format(" %14s", smallestCache(Long.parseLong(size) * bytesPerEntry, environment)));
+		}
+		System.out.println(fitsIn);
+		for(Map.Entry<String, Map<String, Double>> row : table.entrySet()) {
+			StringBuilder line = new StringBuilder(String.format("%-60s", row.getKey()));
+			for(String size : sizes) {
+				Double score = row.getValue().get(size);
+				line.append(score == null ? String.format(" %14s", "-") : String.format(" %14.0f", score));
+			}
+			System.out.println(line);
+		}
+	}
+
+	/**
+	 * @return "L1d", "L2" or "L3" : the smallest cache that bytes fit in, "DRAM" if none of them, or "?" if the cache
+	 * sizes aren't known.
+	 */
+	public static String smallestCache(long bytes, Environment environment) {
+		String[] names = {"L1d", "L2", "L3"};
+		String[] cacheSizes = {environment.l1dCacheSize, environment.l2CacheSize, environment.l3CacheSize};
+		boolean known = false;
+		for(int level = 0; level < names.length; ++level) {
+			long cacheSize = Environment.parseCacheSize(cacheSizes[level]);
+			if(cacheSize < 0) continue;
+			known = true;
+			if(bytes <= cacheSize) return names[level];
+		}
+		return known ? "DRAM" : "?";
+	}
+}
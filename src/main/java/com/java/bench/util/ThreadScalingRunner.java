@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.bench.util.environ.Environment;
+
+/**
+ * Runs the selected benchmarks with 1, 2, 4, ... threads up to the number of cores, and then twice as many threads as
+ * cores (oversubscribed, like a thread pool that is too big). It prints, for every benchmark and params, the score
+ * at each thread count with :
+ * <ol>
+ * 	<li>speedup : the total throughput relative to that of 1 thread (or of 1 thread at the lowest thread count, if JMH
+ * 	groups round it up). For the time modes (e.g. AverageTime is the time per operation of each thread), the total
+ * 	throughput is threads / score.</li>
+ * 	<li>efficiency : speedup / threads, i.e. 1.0 is perfect scaling.</li>
+ * </ol>
+ * The same numbers are written to thread-scaling.json (with the Environment) in the current directory.
+ *
+ * Any JMH options may be passed, e.g. to scale the StripedCounter of CounterBench :
+ * $ java -cp target/javabench.jar com.java.bench.util.ThreadScalingRunner -f 1 -wi 3 -i 5 -p counterType=StripedCounter "CounterBench.increment"
+ * For benchmarks with JMH groups, the thread count is rounded up to whole groups.
+ */
+public final class ThreadScalingRunner {
+	public static final String JSON_FILE = "thread-scaling.json";
+
+	private ThreadScalingRunner() {
+	}
+
+	/**
+	 * One benchmark, with one set of params, at one thread count. The fields are public for Jackson.
+	 */
+	public static class Point {
+		public String benchmark;
+		public Map<String, String> params = new LinkedHashMap<>();
+		public String mode;
+		public int threads;
+		public double score;
+		public String unit;
+		public double speedup;
+		public double efficiency;
+	}
+
+	/**
+	 * What is written to JSON_FILE.
+	 */
+	public static class Report {
+		public Environment environment;
+		public List<Point> points = new ArrayList<>();
+	}
+
+	/**
+	 * @return 1, 2, 4, ... up to maxThreads (which is included even when it isn't a power of 2), and 2 * maxThreads.
+	 */
+	public static List<Integer> threadCounts(int maxThreads) {
+		List<Integer> threadCounts = new ArrayList<>();
+		for(int threads = 1; threads < maxThreads; threads *= 2) {
+			threadCounts.add(threads);
+		}
+		threadCounts.add(maxThreads);
+		threadCounts.add(2 * maxThreads);
+		return threadCounts;
+	}
+
+	/**
+	 * @return The total throughput of all threads, in operations per unit of time (or the inverse of that unit).
+	 */
+	static double totalThroughput(Mode mode, int threads, double score) {
+		return mode == Mode.Throughput ? score : threads / score;
+	}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException,
+			InterruptedException {
+		run(new CommandLineOptions(args), threadCounts(Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Runs the benchmarks selected by options at every thread count, prints the table and writes JSON_FILE.
+	 * @return Every point, e.g. to print a summary of one's own.
+	 */
+	public static List<Point> run(Options options, List<Integer> threadCounts) throws RunnerException, IOException,
+			InterruptedException {
+		Report report = new Report();
+		//The throughput per thread at the lowest thread count, by benchmark, mode and params
+		Map<String, Double> baselines = new LinkedHashMap<>();
+		for(int threads : threadCounts) {
+			Options opts = new OptionsBuilder()
+					.parent(options)
+					.threads(threads)
+					.build();
+			for(RunResult result : new Runner(opts).run()) {
+				Point point = new Point();
+				point.benchmark = result.getParams().getBenchmark();
+				for(String key : result.getParams().getParamsKeys()) {
+					point.params.put(key, result.getParams().getParam(key));
+				}
+				Mode mode = result.getParams().getMode();
+				point.mode = mode.shortLabel();
+				//The threads JMH actually ran, which may be rounded up to whole groups.
+				point.threads = result.getParams().getThreads();
+				point.score = result.getPrimaryResult().getScore();
+				point.unit = result.getPrimaryResult().getScoreUnit();
+
+				double throughput = totalThroughput(mode, point.threads, point.score);
+				String key = point.benchmark + " " + point.mode + " " + point.params;
+				Double baseline = baselines.get(key);
+				if(baseline == null) {
+					baseline = throughput / point.threads;
+					baselines.put(key, baseline);
+				}
+				point.speedup = throughput / baseline;
+				point.efficiency = point.speedup / point.threads;
+				report.points.add(point);
+			}
+		}
+
+		StringBuilder table = new StringBuilder(String.format("%-70s %-6s %8s %16s %-10s %8s %10s%n", "Benchmark",
+				"Mode", "Threads", "Score", "Units", "Speedup", "Efficiency"));
+		List<Point> sorted = new ArrayList<>(report.points);
+		//Group the rows of a benchmark together, in the order of the thread counts.
+		List<String> keys = new ArrayList<>(baselines.keySet());
+		sorted.sort((a, b) -> {
+			int byKey = Integer.compare(keys.indexOf(a.benchmark + " " + a.mode + " " + a.params),
+					keys.indexOf(b.benchmark + " " + b.mode + " " + b.params));
+			return byKey != 0 ? byKey : Integer.compare(a.threads, b.threads);
+		});
+		for(Point point : sorted) {
+			String name = point.benchmark.substring(point.benchmark.lastIndexOf('.', point.benchmark.lastIndexOf('.') - 1)
+					+ 1) + (point.params.isEmpty() ? "" : " " + point.params);
+			table.append(String.format("%-70s %-6s %8d %16.3f %-10s %8.2f %10.2f%n", name, point.mode, point.threads,
+					point.score, point.unit, point.speedup, point.efficiency));
+		}
+		System.out.println(table);
+
+		report.environment = new Environment();
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(JSON_FILE), report);
+		System.out.println("Wrote " + new File(JSON_FILE).getAbsolutePath());
+		return report.points;
+	}
+}
@@ -32,6 +32,10 @@ public class Environment {
 	// These come from the os specific interfaces. e.g. on Linux, it comes from /proc
 	public String processorType;
 	public String memFree;
+	// The sizes of the caches of the first core, e.g. "48K". Please see parseCacheSize() to get the bytes.
+	public String l1dCacheSize;
+	public String l2CacheSize;
+	public String l3CacheSize;
 
 	public Environment() throws IOException, InterruptedException {
 		Runtime runtime = Runtime.getRuntime();
@@ -44,6 +48,8 @@ public class Environment {
 		osArch = prop.getProperty("os.arch");
 		osName = prop.getProperty("os.name");
 
+		//Only known on Linux so far
+		l1dCacheSize = l2CacheSize = l3CacheSize = "";
 		if(prop.getProperty("os.name").contains("nux")) {
 			deduceLinuxEnvironment();
 		}
@@ -82,6 +88,41 @@ public class Environment {
 		String memInfo = getCommandOutput("cat /proc/meminfo");
 		matcher = Pattern.compile("MemFree.*\n").matcher(memInfo);
 		memFree = matcher.find() ? matcher.group().substring("MemFree:        ".length()).replaceAll("\\s+$", "") : "";
+
+		deduceLinuxCacheSizes();
+	}
+
+	/**
+	 * Every cache of cpu0 has a directory /sys/devices/system/cpu/cpu0/cache/indexN with its level (1, 2, 3), type
+	 * (Data, Instruction, Unified) and size (e.g. 48K). The caches that aren't there (e.g. no L3, or in a container
+	 * without /sys) stay empty.
+	 */
+	private void deduceLinuxCacheSizes() throws IOException, InterruptedException {
+		for(int index = 0; index < 8; ++index) {
+			String dir = "/sys/devices/system/cpu/cpu0/cache/index" + index;
+			if(!new File(dir).isDirectory()) break;
+			String[] lines = getCommandOutput("cat " + dir + "/level " + dir + "/type " + dir + "/size").split("\n");
+			if(lines.length < 3) continue;
+			String level = lines[0].trim(), type = lines[1].trim(), size = lines[2].trim();
+			if(level.equals("1") && type.equals("Data")) {
+				l1dCacheSize = size;
+			} else if(level.equals("2") && !type.equals("Instruction")) {
+				l2CacheSize = size;
+			} else if(level.equals("3")) {
+				l3CacheSize = size;
+			}
+		}
+	}
+
+	/**
+	 * @param cacheSize A size as reported by Linux, e.g. "48K", "2048K" or "32M"
+	 * @return The size in bytes, or -1 if it is empty or can't be parsed.
+	 */
+	public static long parseCacheSize(String cacheSize) {
+		Matcher matcher = Pattern.compile("(\\d+)([KMG]?)").matcher(cacheSize == null ? "" : cacheSize.trim());
+		if(!matcher.matches()) return -1;
+		int shift = "_KMG".indexOf(matcher.group(2).isEmpty() ? "_" : matcher.group(2)) * 10;
+		return Long.parseLong(matcher.group(1)) << shift;
 	}
 
 	public static void main(String args[]) throws IOException, InterruptedException {
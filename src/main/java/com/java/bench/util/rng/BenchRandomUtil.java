@@ -19,6 +19,8 @@ package com.java.bench.util.rng;
 
 import java.security.SecureRandom;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This is a utility class that exposes different algorithms for Random Number Generation. So far we have :
@@ -26,7 +28,13 @@ import java.util.Random;
  * 	<li>java.util.Random</li>
  * 	<li>XORshift (https://en.wikipedia.org/wiki/Xorshift)</li>
  * 	<li>java.security.SecureRandom</li>
+ * 	<li>java.util.concurrent.ThreadLocalRandom</li>
+ * 	<li>java.util.SplittableRandom</li>
+ * 	<li>xorshift128+ (https://en.wikipedia.org/wiki/Xorshift#xorshift+)</li>
+ * 	<li>xoshiro256** (http://prng.di.unimi.it/)</li>
  * </ol>
+ * The JDK17 java.util.random.RandomGenerator algorithms (e.g. L64X128MixRandom) are benchmarked by
+ * RandomGeneratorBench, which is only built with JDK17+.
  * 
  * Ideally java.util.Random would have exposed different algorithms, but since it doesn't.
  * We copy pastad the implementation of XORShift from Wikipedia (https://en.wikipedia.org/wiki/Xorshift)
@@ -38,11 +46,17 @@ public class BenchRandomUtil {
 	private Random rng;
 	private int xorShiftRN;
 	private SecureRandom secureRandom;
+	private SplittableRandom splittableRandom;
+	//The 128 bits of state of xorshift128+
+	private long xorShift128Plus0, xorShift128Plus1;
+	//The 256 bits of state of xoshiro256**
+	private long xoshiro0, xoshiro1, xoshiro2, xoshiro3;
 
 	public BenchRandomUtil() {
 		rng = new Random();
 		xorShiftRN = rng.nextInt();
 		secureRandom = new SecureRandom();
+		seedLongStates(rng.nextLong());
 	}
 
 	public BenchRandomUtil(int seed) {
@@ -50,6 +64,22 @@ public class BenchRandomUtil {
 		xorShiftRN = rng.nextInt();
 		secureRandom = new SecureRandom();
 		secureRandom.setSeed(seed);
+		seedLongStates(rng.nextLong());
+	}
+
+	/**
+	 * The 64 bit generators must not start with all of their state 0. So, as their authors recommend, their state is
+	 * filled by SplitMix64 (which is what SplittableRandom is), from one seed.
+	 */
+	private void seedLongStates(long seed) {
+		splittableRandom = new SplittableRandom(seed);
+		SplittableRandom seeder = new SplittableRandom(seed ^ 0x9E3779B97F4A7C15L);
+		xorShift128Plus0 = seeder.nextLong();
+		xorShift128Plus1 = seeder.nextLong() | 1;
+		xoshiro0 = seeder.nextLong();
+		xoshiro1 = seeder.nextLong();
+		xoshiro2 = seeder.nextLong();
+		xoshiro3 = seeder.nextLong() | 1;
 	}
 
 	/**
@@ -77,4 +107,48 @@ public class BenchRandomUtil {
 		return secureRandom.nextInt();
 	}
 
+	/**
+	 * Get the next integer returned by ThreadLocalRandom of the calling thread. Its state is a field of the Thread, so
+	 * this BenchRandomUtil has none.
+	 */
+	public int getNextThreadLocalRandomInt() {
+		return ThreadLocalRandom.current().nextInt();
+	}
+
+	/**
+	 * Get the next integer returned by SplittableRandom
+	 */
+	public int getNextSplittableRandomInt() {
+		return splittableRandom.nextInt();
+	}
+
+	/**
+	 * Get the next integer returned by xorshift128+ (the upper 32 bits, which are better than the lower ones).
+	 * Courtesy : https://en.wikipedia.org/wiki/Xorshift#xorshift+
+	 */
+	public int getNextXorShift128PlusRN() {
+		long s1 = xorShift128Plus0;
+		final long s0 = xorShift128Plus1;
+		final long result = s0 + s1;
+		xorShift128Plus0 = s0;
+		s1 ^= s1 << 23;
+		xorShift128Plus1 = s1 ^ s0 ^ (s1 >>> 18) ^ (s0 >>> 5);
+		return (int) (result >>> 32);
+	}
+
+	/**
+	 * Get the next integer returned by xoshiro256** (the upper 32 bits). Courtesy : http://prng.di.unimi.it/xoshiro256starstar.c
+	 */
+	public int getNextXoshiro256StarStarRN() {
+		final long result = Long.rotateLeft(xoshiro1 * 5, 7) * 9;
+		final long t = xoshiro1 << 17;
+		xoshiro2 ^= xoshiro0;
+		xoshiro3 ^= xoshiro1;
+		xoshiro1 ^= xoshiro2;
+		xoshiro0 ^= xoshiro3;
+		xoshiro2 ^= t;
+		xoshiro3 = Long.rotateLeft(xoshiro3, 45);
+		return (int) (result >>> 32);
+	}
+
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.util.rng;
+
+/**
+ * hotOpsPercent of the keys come from the hot set, which is the first hotKeysPercent of the key-range. The rest are
+ * spread uniformly over the remaining (cold) keys. This is the hotspot distribution from YCSB.
+ */
+public class HotspotKeyDistribution extends KeyDistribution {
+	private final BenchRandomUtil rng;
+	//The keys [0, hotKeyCount) are hot
+	private final int hotKeyCount;
+	private final int coldKeyCount;
+	//hotOpsPercent out of 1024, to be compared with 10 random bits
+	private final int hotOpsThreshold;
+
+	public HotspotKeyDistribution(int keyRangeMask, int hotOpsPercent, int hotKeysPercent, BenchRandomUtil rng) {
+		if(hotOpsPercent < 0 || hotOpsPercent > 100 || hotKeysPercent <= 0 || hotKeysPercent >= 100) {
+			throw new IllegalArgumentException("Bad hotspot : " + hotOpsPercent + "% of ops on " + hotKeysPercent + "% of keys");
+		}
+		long numKeys = keyRangeMask + 1L;
+		this.rng = rng;
+		this.hotKeyCount = (int) Math.max(1, numKeys * hotKeysPercent / 100);
+		this.coldKeyCount = (int) (numKeys - hotKeyCount);
+		this.hotOpsThreshold = hotOpsPercent * 1024 / 100;
+	}
+
+	@Override
+	public int nextKey() {
+		boolean hot = (rng.getNextXorShiftRN() >>> 22) < hotOpsThreshold;
+		int randomNumber = rng.getNextXorShiftRN();
+		return hot ? boundedInt(randomNumber, hotKeyCount) : hotKeyCount + boundedInt(randomNumber, coldKeyCount);
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.util.rng;
+
+/**
+ * A stream of keys in the key-range [0, keyRangeMask], where keyRangeMask MUST BE 2^n-1 (like HASH_MAP_SIZE and
+ * DATA_SIZE in the benchmarks). Real traffic is rarely uniform, and the skew is what causes contention on hot keys.
+ * So far we have :
+ * <ol>
+ * 	<li>uniform : XORshift masked with keyRangeMask. This is what the benchmarks always used.</li>
+ * 	<li>zipfian : A few keys are very popular and most are not (https://en.wikipedia.org/wiki/Zipf%27s_law).</li>
+ * 	<li>hotspot : A fixed percentage of the operations go to a fixed percentage of the keys.</li>
+ * 	<li>sequential : Each thread scans through the key-range, starting at a random key.</li>
+ * </ol>
+ *
+ * nextKey() is called in the measurement loop, so none of the implementations allocate. They are
+ * <strong>not</strong> thread-safe, so each thread should have its own instance.
+ */
+public abstract class KeyDistribution {
+
+	/**
+	 * @return The next key, between 0 and keyRangeMask (both inclusive).
+	 */
+	public abstract int nextKey();
+
+	/**
+	 * Create a KeyDistribution from its name. The name may carry the parameters of the distribution. e.g.
+	 * <ul>
+	 * 	<li>"zipfian" is the same as "zipfian-0.99", where 0.99 is the skew (theta)</li>
+	 * 	<li>"hotspot" is the same as "hotspot-90-10", i.e. 90% of the operations on 10% of the keys</li>
+	 * </ul>
+	 *
+	 * @param name The name of the distribution, as passed to the keyDistribution @Param.
+	 * @param keyRangeMask The largest key. MUST BE 2^n-1.
+	 * @param rng The source of randomness. It will be used by the returned instance only.
+	 */
+	public static KeyDistribution newDistribution(String name, int keyRangeMask, BenchRandomUtil rng) {
+		if(((keyRangeMask + 1) & keyRangeMask) != 0) {
+			throw new IllegalArgumentException("Key-range " + keyRangeMask + " is not 2^n-1");
+		}
+
+		String[] args = name.split("-");
+		if(args[0].equals("uniform")) {
+			return new UniformKeyDistribution(keyRangeMask, rng);
+		} else if(args[0].equals("zipfian")) {
+			double theta = args.length > 1 ? Double.parseDouble(args[1]) : ZipfianKeyDistribution.DEFAULT_THETA;
+			return new ZipfianKeyDistribution(keyRangeMask, theta, rng);
+		} else if(args[0].equals("hotspot")) {
+			int hotOpsPercent = args.length > 1 ? Integer.parseInt(args[1]) : 90;
+			int hotKeysPercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+			return new HotspotKeyDistribution(keyRangeMask, hotOpsPercent, hotKeysPercent, rng);
+		} else if(args[0].equals("sequential")) {
+			return new SequentialKeyDistribution(keyRangeMask, rng);
+		}
+		throw new IllegalArgumentException("Unknown key distribution : " + name);
+	}
+
+	/**
+	 * Map a random int uniformly onto [0, bound) without a division. (https://lemire.me/blog/2016/06/27/a-fast-alternative-to-the-modulo-reduction/)
+	 */
+	static int boundedInt(int randomNumber, int bound) {
+		return (int) (((randomNumber & 0xFFFFFFFFL) * bound) >>> 32);
+	}
+
+	/**
+	 * @return A uniformly distributed double in [0, 1) made from the 31 low bits of randomNumber.
+	 */
+	static double unitDouble(int randomNumber) {
+		return (randomNumber & 0x7FFFFFFF) * 0x1.0p-31;
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.util.rng;
+
+/**
+ * Scans through the key-range one key at a time, wrapping around at the end. Each instance starts at a random key so
+ * that threads don't all scan in lock-step.
+ */
+public class SequentialKeyDistribution extends KeyDistribution {
+	private final int keyRangeMask;
+	private int nextKey;
+
+	public SequentialKeyDistribution(int keyRangeMask, BenchRandomUtil rng) {
+		this.keyRangeMask = keyRangeMask;
+		this.nextKey = rng.getNextXorShiftRN() & keyRangeMask;
+	}
+
+	@Override
+	public int nextKey() {
+		int key = nextKey;
+		nextKey = (key + 1) & keyRangeMask;
+		return key;
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.util.rng;
+
+/**
+ * Every key is equally likely. This is exactly what the benchmarks did before there were KeyDistributions.
+ */
+public class UniformKeyDistribution extends KeyDistribution {
+	private final int keyRangeMask;
+	private final BenchRandomUtil rng;
+
+	public UniformKeyDistribution(int keyRangeMask, BenchRandomUtil rng) {
+		this.keyRangeMask = keyRangeMask;
+		this.rng = rng;
+	}
+
+	@Override
+	public int nextKey() {
+		//This is similar to a modulo operation since keyRangeMask is 2^n - 1
+		return rng.getNextXorShiftRN() & keyRangeMask;
+	}
+}
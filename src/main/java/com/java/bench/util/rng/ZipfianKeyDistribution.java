@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.util.rng;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zipfian distributed keys : the key of rank r is picked with probability proportional to 1/r^theta.
+ *
+ * We use the algorithm from "Quickly Generating Billion-Record Synthetic Databases" (Gray et al, SIGMOD 1994), which
+ * is also what YCSB uses. It needs zeta(n, theta) which takes O(n) to compute, so that is done once per key-range and
+ * cached. After that, each key costs one Math.pow().
+ *
+ * Like YCSB's ScrambledZipfianGenerator, the ranks are scrambled before being returned, so the popular keys are spread
+ * out over the key-range instead of all being next to each other. Since the key-range is 2^n, multiplying by an odd
+ * number and masking is a bijection, i.e. every rank still maps to a distinct key.
+ */
+public class ZipfianKeyDistribution extends KeyDistribution {
+	//The skew used by YCSB
+	public static final double DEFAULT_THETA = 0.99;
+
+	//zeta(n, theta) for every (n, theta) seen so far. Computing it for 2^24 keys takes a while, and every thread needs it.
+	private static final ConcurrentHashMap<String, Double> ZETA_CACHE = new ConcurrentHashMap<>();
+
+	private final BenchRandomUtil rng;
+	private final int keyRangeMask;
+	private final int numKeys;
+	private final double zetaN;
+	private final double alpha;
+	private final double eta;
+	//1 + 0.5^theta
+	private final double rankOneThreshold;
+
+	public ZipfianKeyDistribution(int keyRangeMask, double theta, BenchRandomUtil rng) {
+		if(theta <= 0 || theta >= 1) throw new IllegalArgumentException("theta must be in (0, 1) : " + theta);
+		this.rng = rng;
+		this.keyRangeMask = keyRangeMask;
+		this.numKeys = keyRangeMask + 1;
+		this.zetaN = ZETA_CACHE.computeIfAbsent(numKeys + ":" + theta, k -> zeta(numKeys, theta));
+		double zeta2 = zeta(2, theta);
+		this.alpha = 1.0 / (1.0 - theta);
+		this.eta = (1 - Math.pow(2.0 / numKeys, 1 - theta)) / (1 - zeta2 / zetaN);
+		this.rankOneThreshold = 1 + Math.pow(0.5, theta);
+	}
+
+	private static double zeta(long n, double theta) {
+		double sum = 0;
+		for(long i = 1; i <= n; ++i) {
+			sum += 1 / Math.pow(i, theta);
+		}
+		return sum;
+	}
+
+	/**
+	 * @return The rank of the next key. 0 is the most popular.
+	 */
+	int nextRank() {
+		double u = unitDouble(rng.getNextXorShiftRN());
+		double uz = u * zetaN;
+		if(uz < 1.0) return 0;
+		if(uz < rankOneThreshold) return 1;
+		int rank = (int) (numKeys * Math.pow(eta * u - eta + 1, alpha));
+		//Rounding can very rarely push us to numKeys
+		return rank < numKeys ? rank : numKeys - 1;
+	}
+
+	@Override
+	public int nextKey() {
+		//Any odd multiplier works. This is the golden ratio one which spreads bits well.
+		return (nextRank() * 0x9E3779B9) & keyRangeMask;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.rng;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The same benchmark as RandomBench, for the algorithms of java.util.random (JEP 356) : the LXM family (e.g.
+ * L64X128MixRandom, which the JDK recommends as a default), xoshiro / xoroshiro, and the legacy generators for
+ * comparison. They are created by name with RandomGenerator.of(), so any other algorithm the JDK has may be passed,
+ * e.g. -p algorithm=L64X1024MixRandom. This is only built with JDK17+ (the java17 profile in pom.xml).
+ *
+ * By default:
+ * 1. This test spawns only 1 thread.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class RandomGeneratorBench {
+
+	@State(Scope.Thread)
+	public static class GeneratorState {
+		@Param({"L32X64MixRandom", "L64X128MixRandom", "L64X128StarStarRandom", "L64X256MixRandom",
+				"L128X128MixRandom", "Xoroshiro128PlusPlus", "Xoshiro256PlusPlus", "Random", "SplittableRandom"})
+		String algorithm;
+
+		RandomGenerator generator;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			generator = RandomGenerator.of(algorithm);
+		}
+	}
+
+	@Benchmark
+	public int nextInt(GeneratorState state) {
+		return state.generator.nextInt();
+	}
+
+	@Benchmark
+	public long nextLong(GeneratorState state) {
+		return state.generator.nextLong();
+	}
+
+	/**
+	 * A bounded int, like a sampling decision. The bound is not a power of 2, so this may take more than one draw.
+	 */
+	@Benchmark
+	public int nextIntBounded(GeneratorState state) {
+		return state.generator.nextInt(1000);
+	}
+
+}
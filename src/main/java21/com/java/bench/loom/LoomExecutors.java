@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.loom;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The ExecutorServices the loom benchmarks run their tasks on. So far we have :
+ * <ol>
+ * 	<li>virtual : a new virtual thread per task (Executors.newVirtualThreadPerTaskExecutor()). The virtual threads run
+ * 	on a ForkJoinPool of carrier threads, one per core by default (-Djdk.virtualThreadScheduler.parallelism).</li>
+ * 	<li>platformPerTask : a new platform (i.e. OS) thread per task.</li>
+ * 	<li>platformPool : a fixed ThreadPoolExecutor of PLATFORM_POOL_SIZE platform threads, which is how blocking
+ * 	request handlers are usually run today.</li>
+ * </ol>
+ */
+public final class LoomExecutors {
+	//Twice the cores, like a pool sized for somewhat blocking tasks. At least 8, so that a RING_SIZE ring fits.
+	public static final int PLATFORM_POOL_SIZE = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+	private LoomExecutors() {
+	}
+
+	public static ExecutorService newExecutor(String executorType) {
+		if(executorType.equals("virtual")) {
+			return Executors.newVirtualThreadPerTaskExecutor();
+		} else if(executorType.equals("platformPerTask")) {
+			return Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory());
+		} else if(executorType.equals("platformPool")) {
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(PLATFORM_POOL_SIZE, PLATFORM_POOL_SIZE, 0,
+					TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+			//Start the threads now, so that the first iteration doesn't pay for them.
+			pool.prestartAllCoreThreads();
+			return pool;
+		}
+		throw new IllegalArgumentException("Unknown executor type : " + executorType);
+	}
+
+	@State(Scope.Benchmark)
+	public static class ExecutorState {
+		@Param({"virtual", "platformPerTask", "platformPool"})
+		String executorType;
+
+		ExecutorService executor;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup() {
+			executor = newExecutor(executorType);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.loom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.loom.LoomExecutors.ExecutorState;
+
+/**
+ * This benchmark tests locks under virtual threads (please see LoomExecutors for the executorTypes). On JDK21, a
+ * virtual thread that blocks while holding a monitor (synchronized), or in Object.wait(), can't unmount. It "pins" its
+ * carrier thread, so at most as many of them can block at once as there are carriers (1 per core by default). A
+ * ReentrantLock doesn't pin. Please run with -Djdk.tracePinnedThreads=short to see where threads were pinned.
+ * <ol>
+ * 	<li>blockingUnderLock : `tasks` tasks each take their own lock (so there is no contention) and sleep BLOCK_MILLIS
+ * 	while holding it. Without pinning, all the virtual threads sleep at the same time, so this takes about BLOCK_MILLIS.
+ * 	Pinned virtual threads, like a fixed pool, take about tasks * BLOCK_MILLIS / threads.</li>
+ * 	<li>intrinsicLocking : intrinsic.IntrinsicLocking (and NoLocking) again, but on `tasks` tasks that each make CALLS
+ * 	calls to an empty method, all guarded by the same lock.</li>
+ * 	<li>roundRobin : the waitNotifyAll, parkUnpark and condition handoffs of handoff.RoundRobinHandoff, on a ring of
+ * 	RING_SIZE tasks passing the turn ROUNDS times each.</li>
+ * </ol>
+ * This is only built with JDK21+ (the java21 profile in pom.xml). JDK24 (JEP 491) no longer pins in synchronized, so
+ * please compare the JDKs too.
+ *
+ * By default:
+ * 1. This test spawns only 1 thread, which submits to the executor.
+ * 2. Lower numbers mean better performance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class PinningBench {
+	static final int BLOCK_MILLIS = 1;
+	static final int CALLS = 1000;
+	static final int RING_SIZE = 4;
+	static final int ROUNDS = 100;
+
+	@State(Scope.Benchmark)
+	public static class TaskState {
+		@Param({"1000"})
+		int tasks;
+	}
+
+	@State(Scope.Benchmark)
+	public static class LockState {
+		@Param({"none", "synchronized", "ReentrantLock"})
+		String lockType;
+
+		final Object monitor = new Object();
+		final ReentrantLock lock = new ReentrantLock();
+		long counter;
+
+		/**
+		 * Run r while holding monitor or lock, depending on the lockType.
+		 */
+		void runLocked(Object monitor, ReentrantLock lock, Runnable r) {
+			if(lockType.equals("none")) {
+				r.run();
+			} else if(lockType.equals("synchronized")) {
+				synchronized(monitor) {
+					r.run();
+				}
+			} else if(lockType.equals("ReentrantLock")) {
+				lock.lock();
+				try {
+					r.run();
+				} finally {
+					lock.unlock();
+				}
+			} else {
+				throw new IllegalArgumentException("Unknown lock type : " + lockType);
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class HandoffState {
+		@Param({"waitNotifyAll", "parkUnpark", "condition"})
+		String handoffType;
+	}
+
+	private static void getAll(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+		for(Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	@Benchmark
+	public void blockingUnderLock(ExecutorState executorState, TaskState taskState, LockState lockState)
+			throws InterruptedException, ExecutionException {
+		List<Future<?>> futures = new ArrayList<>(taskState.tasks);
+		for(int i = 0; i < taskState.tasks; ++i) {
+			futures.add(executorState.executor.submit(() -> {
+				lockState.runLocked(new Object(), new ReentrantLock(), PinningBench::block);
+			}));
+		}
+		getAll(futures);
+	}
+
+	private static void block() {
+		try {
+			Thread.sleep(BLOCK_MILLIS);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Benchmark
+	public long intrinsicLocking(ExecutorState executorState, TaskState taskState, LockState lockState)
+			throws InterruptedException, ExecutionException {
+		Runnable increment = () -> lockState.counter++;
+		List<Future<?>> futures = new ArrayList<>(taskState.tasks);
+		for(int i = 0; i < taskState.tasks; ++i) {
+			futures.add(executorState.executor.submit(() -> {
+				for(int j = 0; j < CALLS; ++j) {
+					lockState.runLocked(lockState.monitor, lockState.lock, increment);
+				}
+			}));
+		}
+		getAll(futures);
+		return lockState.counter;
+	}
+
+	@Benchmark
+	public void roundRobin(ExecutorState executorState, HandoffState handoffState) throws InterruptedException,
+			ExecutionException {
+		Ring ring = new Ring();
+		List<Future<?>> futures = new ArrayList<>(RING_SIZE);
+		for(int member = 0; member < RING_SIZE; ++member) {
+			final int index = member;
+			futures.add(executorState.executor.submit(() -> {
+				ring.threads.set(index, Thread.currentThread());
+				for(int i = 0; i < ROUNDS; ++i) {
+					ring.pass(handoffState.handoffType, index);
+				}
+				return null;
+			}));
+		}
+		getAll(futures);
+	}
+
+	/**
+	 * Whose turn it is, and how to wait for it, like the Ring in handoff.RoundRobinHandoff. There is a new ring every
+	 * invocation, so there's no need to check Control.stopMeasurement.
+	 */
+	private static class Ring {
+		volatile int turn;
+		final AtomicReferenceArray<Thread> threads = new AtomicReferenceArray<>(RING_SIZE);
+		final ReentrantLock lock = new ReentrantLock();
+		final Condition[] conditions = new Condition[RING_SIZE];
+
+		Ring() {
+			for(int i = 0; i < RING_SIZE; ++i) {
+				conditions[i] = lock.newCondition();
+			}
+		}
+
+		/**
+		 * Wait for index's turn and then pass it on to the next member.
+		 */
+		void pass(String handoffType, int index) throws InterruptedException {
+			int next = (index + 1) % RING_SIZE;
+			if(handoffType.equals("waitNotifyAll")) {
+				synchronized(this) {
+					while(turn != index) {
+						wait();
+					}
+					turn = next;
+					notifyAll();
+				}
+			} else if(handoffType.equals("parkUnpark")) {
+				while(turn != index) {
+					LockSupport.park();
+				}
+				turn = next;
+				//If next hasn't registered yet, it will see the turn when it first checks.
+				Thread nextThread = threads.get(next);
+				if(nextThread != null) LockSupport.unpark(nextThread);
+			} else if(handoffType.equals("condition")) {
+				lock.lock();
+				try {
+					while(turn != index) {
+						conditions[index].await();
+					}
+					turn = next;
+					conditions[next].signal();
+				} finally {
+					lock.unlock();
+				}
+			} else {
+				throw new IllegalArgumentException("Unknown handoff type : " + handoffType);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.loom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.java.bench.loom.LoomExecutors.ExecutorState;
+
+/**
+ * This benchmark tests what virtual threads cost compared to platform threads (please see LoomExecutors for the
+ * executorTypes). The JMH thread only submits the tasks and waits for them, so that everything measured runs on the
+ * executor's threads.
+ * <ol>
+ * 	<li>spawnJoin : start `tasks` empty tasks and wait for all of them to finish.</li>
+ * 	<li>pingPongQueue : 2 tasks pass a token back and forth ROUNDS times through 2 BlockingQueues. Every pass blocks
+ * 	one thread and wakes up the other, so this is a context switch (for virtual threads, an unmount and mount).</li>
+ * 	<li>pingPongParkUnpark : the same with LockSupport.park() and unpark(), without a queue in between.</li>
+ * </ol>
+ * The time of the ping pongs includes starting the 2 tasks, so subtract spawnJoin with tasks=1 (twice). This is only
+ * built with JDK21+ (the java21 profile in pom.xml). Please see PinningBench for locks and virtual threads.
+ *
+ * By default:
+ * 1. This test spawns only 1 thread, which submits to the executor.
+ * 2. Lower numbers mean better performance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class VirtualThreadBench {
+	//The number of round trips of a ping pong
+	static final int ROUNDS = 1000;
+	private static final Object TOKEN = new Object();
+
+	@State(Scope.Benchmark)
+	public static class SpawnState {
+		@Param({"1", "100", "10000"})
+		int tasks;
+	}
+
+	@State(Scope.Benchmark)
+	public static class QueueState {
+		@Param({"SynchronousQueue", "ArrayBlockingQueue"})
+		String queueType;
+
+		BlockingQueue<Object> newQueue() {
+			if(queueType.equals("SynchronousQueue")) {
+				return new SynchronousQueue<>();
+			} else if(queueType.equals("ArrayBlockingQueue")) {
+				return new ArrayBlockingQueue<>(1);
+			}
+			throw new IllegalArgumentException("Unknown queue type : " + queueType);
+		}
+	}
+
+	@Benchmark
+	public void spawnJoin(ExecutorState executorState, SpawnState spawnState) throws InterruptedException,
+			ExecutionException {
+		List<Future<?>> futures = new ArrayList<>(spawnState.tasks);
+		for(int i = 0; i < spawnState.tasks; ++i) {
+			futures.add(executorState.executor.submit(() -> {
+				//Intentionally left empty.
+			}));
+		}
+		for(Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	@Benchmark
+	public void pingPongQueue(ExecutorState executorState, QueueState queueState) throws InterruptedException,
+			ExecutionException {
+		BlockingQueue<Object> pings = queueState.newQueue();
+		BlockingQueue<Object> pongs = queueState.newQueue();
+		Future<?> ponger = executorState.executor.submit(() -> {
+			for(int i = 0; i < ROUNDS; ++i) {
+				pongs.put(pings.take());
+			}
+			return null;
+		});
+		Future<?> pinger = executorState.executor.submit(() -> {
+			for(int i = 0; i < ROUNDS; ++i) {
+				pings.put(TOKEN);
+				pongs.take();
+			}
+			return null;
+		});
+		pinger.get();
+		ponger.get();
+	}
+
+	@Benchmark
+	public void pingPongParkUnpark(ExecutorState executorState) throws InterruptedException, ExecutionException {
+		//Whose turn it is (0 or 1), and the 2 threads, so that each can unpark the other.
+		AtomicInteger turn = new AtomicInteger();
+		AtomicReferenceArray<Thread> threads = new AtomicReferenceArray<>(2);
+		List<Future<?>> futures = new ArrayList<>(2);
+		for(int player = 0; player < 2; ++player) {
+			final int me = player;
+			futures.add(executorState.executor.submit(() -> {
+				threads.set(me, Thread.currentThread());
+				for(int i = 0; i < ROUNDS; ++i) {
+					while(turn.get() != me) {
+						LockSupport.park();
+					}
+					turn.set(1 - me);
+					//The other thread may not have registered itself yet. If so, it will see the turn when it first checks.
+					Thread other = threads.get(1 - me);
+					if(other != null) LockSupport.unpark(other);
+				}
+			}));
+		}
+		for(Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+}
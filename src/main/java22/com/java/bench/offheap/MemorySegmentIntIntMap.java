@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.offheap;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * An OffHeapIntIntMap in a MemorySegment of the foreign memory API (final in JDK22), without sun.misc.Unsafe. Unlike a
+ * ByteBuffer, a MemorySegment is indexed by long, so the table isn't limited to 2GB. Every access is bounds checked
+ * (which the JIT mostly hoists or folds into the mask). This is only built with JDK22+ (the java22 profile in pom.xml).
+ *
+ * The segment comes from an automatic Arena, so like a direct ByteBuffer it is freed when it is garbage collected.
+ */
+public class MemorySegmentIntIntMap extends OffHeapIntIntMap {
+	//4 byte aligned and in the native byte order, like the ByteBuffer's ints.
+	private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+
+	private final MemorySegment table;
+
+	public MemorySegmentIntIntMap(long expectedSize) {
+		super(slotsFor(expectedSize));
+		//Zeroed, i.e. every slot holds FREE_KEY.
+		table = Arena.ofAuto().allocate(slotsFor(expectedSize) * SLOT_BYTES, SLOT_BYTES);
+	}
+
+	@Override
+	protected int getInt(long offset) {
+		return table.get(INT, offset);
+	}
+
+	@Override
+	protected void putInt(long offset, int value) {
+		table.set(INT, offset, value);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.atomic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Counters that update a plain volatile long field through a java.lang.invoke.VarHandle (JDK9+), rather than through
+ * an AtomicLong object. This saves the indirection to the AtomicLong. So far we have :
+ * <ol>
+ * 	<li>VarHandleGetAndAdd : VarHandle.getAndAdd()</li>
+ * 	<li>VarHandleCASLoop : a getVolatile() and compareAndSet() loop</li>
+ * </ol>
+ */
+public abstract class VarHandleCounter extends Counter {
+	private static final VarHandle COUNT;
+	static {
+		try {
+			COUNT = MethodHandles.lookup().findVarHandle(VarHandleCounter.class, "count", long.class);
+		} catch(ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private volatile long count;
+
+	@Override
+	public long get() {
+		return count;
+	}
+
+	public static Counter newVarHandleCounter(String counterType) {
+		if(counterType.equals("VarHandleGetAndAdd")) {
+			return new GetAndAddCounter();
+		} else if(counterType.equals("VarHandleCASLoop")) {
+			return new CASLoopCounter();
+		}
+		throw new IllegalArgumentException("Unknown counter type : " + counterType);
+	}
+
+	static class GetAndAddCounter extends VarHandleCounter {
+		@Override
+		public void increment() {
+			COUNT.getAndAdd(this, 1L);
+		}
+	}
+
+	static class CASLoopCounter extends VarHandleCounter {
+		@Override
+		public void increment() {
+			long current;
+			do {
+				current = (long) COUNT.getVolatile(this);
+			} while(!COUNT.compareAndSet(this, current, current + 1));
+		}
+	}
+}
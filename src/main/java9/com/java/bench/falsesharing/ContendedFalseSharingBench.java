@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.falsesharing;
+
+import java.util.concurrent.TimeUnit;
+
+import jdk.internal.vm.annotation.Contended;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * The writeCell benchmark of FalseSharingBench, with a Cell whose value is padded by the JVM itself because it is
+ * annotated with @Contended. Outside the JDK, the JVM ignores @Contended unless it is started with
+ * -XX:-RestrictContended, so the forked JVM gets that flag. This is only built with JDK9+ (the java9 profile in
+ * pom.xml), which also exports jdk.internal.vm.annotation to us at compile time.
+ *
+ * By default:
+ * 1. This test spawns as many threads as there are cores in the test environment.
+ * 2. Higher numbers mean better performance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+@Fork(jvmArgsAppend = "-XX:-RestrictContended")
+public class ContendedFalseSharingBench {
+
+	static class ContendedCell extends Cell {
+		@Contended
+		private long value;
+
+		@Override
+		public void increment() {
+			value++;
+		}
+
+		@Override
+		public long get() {
+			return value;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadIndex {
+		int index;
+
+		@Setup(Level.Trial)
+		public void setup(ThreadParams threadParams) {
+			index = threadParams.getThreadIndex();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class CellState {
+		Cell[] cells;
+
+		//Run the setup only once for all iterations of the benchmark.
+		@Setup(Level.Trial)
+		public void setup(ThreadParams threadParams) {
+			cells = new Cell[threadParams.getThreadCount()];
+			for(int i = 0; i < cells.length; ++i) {
+				cells[i] = new ContendedCell();
+			}
+		}
+	}
+
+	@Benchmark
+	public void writeCell(CellState cellState, ThreadIndex thread) {
+		cellState.cells[thread.index].increment();
+	}
+
+}
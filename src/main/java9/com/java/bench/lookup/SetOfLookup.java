@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2017 raviprak
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.java.bench.lookup;
+
+import java.util.Set;
+
+/**
+ * An immutable Set.of(), which only exists since Java 9. Its hash table uses linear probing in an array of the keys
+ * themselves, rather than HashMap's chained nodes. The keys are still boxed.
+ */
+public class SetOfLookup extends IntLookup {
+	private final Set<Integer> data;
+
+	public SetOfLookup(int[] keys) {
+		Integer[] boxed = new Integer[keys.length];
+		for(int i = 0; i < keys.length; ++i) {
+			boxed[i] = keys[i];
+		}
+		data = Set.of(boxed);
+	}
+
+	@Override
+	public boolean contains(int key) {
+		return data.contains(key);
+	}
+}
@@ -0,0 +1,47 @@
+package com.java.bench.executors;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Param;
+
+import com.java.bench.latency.LatencyRecorder;
+
+public class TestTaskExecutors {
+
+	/**
+	 * EXECUTOR_TYPES, which main() measures the start latency of, are the executorTypes the benchmarks run with.
+	 */
+	public void testExecutorTypesInSync() throws NoSuchFieldException {
+		String[] params = ExecutorBench.ExecutorState.class.getDeclaredField("executorType").getAnnotation(Param.class)
+				.value();
+		assert Arrays.asList(params).equals(ExecutorBench.EXECUTOR_TYPES) : "Params were " + Arrays.toString(params);
+	}
+
+	/**
+	 * Every executor runs every task, and StartLatency records the start of every one of them.
+	 */
+	public void testStartLatency() throws InterruptedException {
+		for(String executorType : ExecutorBench.EXECUTOR_TYPES) {
+			ExecutorService executor = TaskExecutors.newExecutor(executorType, 2);
+			StartLatency startLatency = new StartLatency();
+			for(int i = 0; i < 10000; ++i) {
+				executor.execute(startLatency.newTask(() -> { }));
+			}
+			LatencyRecorder latencies = startLatency.awaitAll();
+			assert latencies.getTotalCount() == 10000 : executorType + " started " + latencies.getTotalCount();
+			assert latencies.getMax() < TimeUnit.SECONDS.toNanos(10) : executorType + " took " + latencies.getMax();
+			executor.shutdown();
+		}
+	}
+
+	public void testUnknownExecutorType() {
+		try {
+			TaskExecutors.newExecutor("ThreadPerTask", 2);
+			assert false : "Expected an IllegalArgumentException";
+		} catch(IllegalArgumentException e) {
+			assert e.getMessage().equals("Unknown executor type : ThreadPerTask");
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.java.bench.latency;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestLatencyRecorder {
+
+	/**
+	 * Percentiles of random values spread over many orders of magnitude are within the precision of the exact ones
+	 * (from sorting), and never below them.
+	 */
+	public void testPercentiles() {
+		LatencyRecorder recorder = new LatencyRecorder(8);
+		Random random = new Random(42);
+		long[] values = new long[100000];
+		for(int i = 0; i < values.length; ++i) {
+			//Log-uniform from 1 to 2^40
+			values[i] = (long) Math.pow(2, random.nextDouble() * 40);
+			recorder.record(values[i]);
+		}
+		Arrays.sort(values);
+		for(double percentile : new double[] {0, 1, 50, 90, 99, 99.9, 99.99, 100}) {
+			long exact = values[(int) Math.max(0, Math.ceil(percentile / 100 * values.length) - 1)];
+			long reported = recorder.getValueAtPercentile(percentile);
+			assert reported >= exact && reported <= exact + exact / 128 :
+				"p" + percentile + " was " + reported + " instead of " + exact;
+		}
+		assert recorder.getTotalCount() == values.length;
+		assert recorder.getMin() == values[0] && recorder.getMax() == values[values.length - 1];
+		assert recorder.getValueAtPercentile(100) == recorder.getMax();
+	}
+
+	/**
+	 * Small values are exact, even the 0 and the largest long.
+	 */
+	public void testExtremes() {
+		LatencyRecorder recorder = new LatencyRecorder(4);
+		for(long value = 0; value < 16; ++value) {
+			recorder.record(value);
+		}
+		for(int i = 1; i <= 16; ++i) {
+			assert recorder.getValueAtPercentile(i * 100.0 / 16) == i - 1 : "p" + (i * 100.0 / 16) + " is not exact";
+		}
+		recorder.record(Long.MAX_VALUE);
+		assert recorder.getValueAtPercentile(100) == Long.MAX_VALUE;
+	}
+
+	public void testAddAndReset() {
+		LatencyRecorder a = new LatencyRecorder();
+		LatencyRecorder b = new LatencyRecorder();
+		for(int i = 1; i <= 100; ++i) {
+			a.record(i);
+			b.record(1000 * i);
+		}
+		a.add(b);
+		assert a.getTotalCount() == 200;
+		assert a.getValueAtPercentile(50) == 100 : "p50 was " + a.getValueAtPercentile(50);
+		assert a.getMax() == 100000 && a.getMin() == 1;
+		assert a.getMean() == (5050 + 5050000) / 200.0;
+		a.reset();
+		assert a.getTotalCount() == 0 && a.getValueAtPercentile(99) == 0 && a.getMax() == 0;
+	}
+
+	/**
+	 * The driver runs exactly the scheduled number of operations, and measures a slow operation from when it should
+	 * have started : at 1000 ops/s, an operation of 5ms makes the following ones wait, so the corrected max is higher
+	 * than the uncorrected one.
+	 */
+	public void testFixedRateDriver() throws InterruptedException {
+		FixedRateDriver driver = new FixedRateDriver(2, 1000);
+		int[] calls = new int[1];
+		FixedRateDriver.Result result = driver.run(() -> {
+			synchronized(calls) {
+				if(++calls[0] == 10) {
+					try {
+						Thread.sleep(5);
+					} catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}, 0.1);
+		assert result.corrected.getTotalCount() == 100 : "Ran " + result.corrected.getTotalCount() + " operations";
+		assert calls[0] == 100;
+		assert result.corrected.getMax() >= result.uncorrected.getMax();
+		assert result.corrected.getMax() >= 5000000 : "The 5ms operation was measured as " + result.corrected.getMax();
+	}
+}
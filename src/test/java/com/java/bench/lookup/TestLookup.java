@@ -0,0 +1,56 @@
+package com.java.bench.lookup;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Param;
+
+public class TestLookup {
+
+	/**
+	 * Every lookup type answers exactly like a linear scan, for the keys Lookup uses : the even numbers.
+	 */
+	public void testLookupTypesAgree() throws NoSuchFieldException {
+		int[] keys = new int[1024];
+		for(int i = 0; i < keys.length; ++i) {
+			keys[i] = i << 1;
+		}
+		Field dataType = Lookup.CollectionState.class.getDeclaredField("dataType");
+		List<String> types = new ArrayList<>(Arrays.asList(dataType.getAnnotation(Param.class).value()));
+		//Not a default, because it needs a build with JDK9+. The tests always run on the JDK they were built with.
+		if(!System.getProperty("java.specification.version").startsWith("1.")) types.add("SetOf");
+		for(String type : types) {
+			IntLookup lookup = IntLookup.newLookup(type, keys);
+			for(int key = 0; key < 2 * keys.length + 8; ++key) {
+				assert lookup.contains(key) == (key < 2 * keys.length && (key & 1) == 0) : type + " is wrong about " + key;
+			}
+		}
+	}
+
+	public void testBloomFilter() {
+		BloomFilter bloomFilter = new BloomFilter(10000, 10);
+		for(int key = 0; key < 10000; ++key) {
+			bloomFilter.add(key * 7);
+		}
+		int falsePositives = 0;
+		for(int key = 0; key < 10000; ++key) {
+			assert bloomFilter.mightContain(key * 7) : "False negative for " + key * 7;
+			if(bloomFilter.mightContain(key * 7 + 1)) falsePositives++;
+		}
+		//10 bits per key should give about 1%. Rounding the size up to a power of 2 only makes it better.
+		assert falsePositives < 300 : falsePositives + " false positives out of 10000";
+	}
+
+	/**
+	 * DATA_SIZE is also the key-range mask of the KeyDistribution.
+	 */
+	public void testDataSizeIsPowerOf2Minus1() throws NoSuchFieldException {
+		Field dataSize = Lookup.CollectionState.class.getDeclaredField("DATA_SIZE");
+		for(String value : dataSize.getAnnotation(Param.class).value()) {
+			int size = Integer.parseInt(value);
+			assert (size & (size + 1)) == 0 : "DATA_SIZE " + size + " is not 2^n-1";
+		}
+	}
+}
@@ -35,4 +35,19 @@ public class TestHashMapBench {
 			}
 		}
 	}
+
+	/**
+	 * Every key the benchmarks can draw, [0, HASH_MAP_SIZE], is seeded, so that the puts on the (not thread-safe)
+	 * IntIntOpenHashMap only ever overwrite.
+	 */
+	public void testEveryKeySeeded() {
+		HashMapBench.MapState mapState = new HashMapBench.MapState();
+		mapState.HASH_MAP_SIZE = 255;
+		mapState.mapType = "IntIntOpenHashMap";
+		mapState.setup();
+		assert mapState.map.size() == 256 : "Seeded " + mapState.map.size() + " keys";
+		for(int key = 0; key <= 255; ++key) {
+			assert mapState.map.get(key) == key : "Key " + key + " was not seeded";
+		}
+	}
 }
@@ -0,0 +1,93 @@
+package com.java.bench.maps;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestIntIntOpenHashMap {
+
+	/**
+	 * Check the primitive maps against the behavior of java.util.Map, including the key 0 which is stored outside
+	 * the table, and growing well past the expected size.
+	 */
+	public void testPutGet() {
+		checkPutGet(new IntIntOpenHashMap(4));
+		checkPutGet(new StripedIntIntOpenHashMap(4, 3));
+	}
+
+	/**
+	 * After clear() the map is empty (including the key 0), and can be filled again.
+	 */
+	public void testClear() {
+		IntIntOpenHashMap map = new IntIntOpenHashMap(4);
+		checkPutGet(map);
+		map.clear();
+		assert map.size() == 0 : "Size was " + map.size() + " after clear()";
+		assert map.get(31) == IntIntMap.NO_VALUE && map.get(0) == IntIntMap.NO_VALUE : "A key survived clear()";
+		checkPutGet(map);
+	}
+
+	/**
+	 * Very high and very low load factors still grow correctly (a full table would make get() of a missing key loop).
+	 */
+	public void testLoadFactor() {
+		checkPutGet(new IntIntOpenHashMap(4, 0.99f));
+		checkPutGet(new IntIntOpenHashMap(4, 0.01f));
+		checkRemove(new IntIntOpenHashMap(1, 0.99f));
+		try {
+			new IntIntOpenHashMap(4, 1f);
+			assert false : "A load factor of 1 was accepted";
+		} catch(IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	private void checkPutGet(IntIntMap map) {
+		assert map.get(0) == IntIntMap.NO_VALUE : "Empty map returned a value for key 0";
+		assert map.put(0, 42) == IntIntMap.NO_VALUE;
+		assert map.put(0, 43) == 42 : "Overwriting key 0 did not return the previous value";
+
+		for(int i = 1; i < 10000; ++i) {
+			assert map.put(i * 31, i) == IntIntMap.NO_VALUE : "Key " + i * 31 + " was present before it was put";
+		}
+		assert map.size() == 10000 : "Size was " + map.size();
+
+		for(int i = 1; i < 10000; ++i) {
+			assert map.get(i * 31) == i : "Wrong value for key " + i * 31;
+			assert map.get(i * 31 + 1) == IntIntMap.NO_VALUE : "Found key " + (i * 31 + 1) + " which was never put";
+		}
+		assert map.get(0) == 43;
+		assert map.get(-31) == IntIntMap.NO_VALUE;
+	}
+
+	/**
+	 * Removes shift entries back into the hole they leave. Do lots of random puts and removes on a small key-range
+	 * (so that probe runs are long and wrap around) and check against java.util.HashMap after every operation.
+	 */
+	public void testRemove() {
+		checkRemove(new IntIntOpenHashMap(16));
+		checkRemove(new StripedIntIntOpenHashMap(16, 2));
+	}
+
+	private void checkRemove(IntIntMap map) {
+		Map<Integer, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		for(int i = 0; i < 100000; ++i) {
+			int key = random.nextInt(64);
+			if(random.nextBoolean()) {
+				Integer previous = expected.put(key, i);
+				assert map.put(key, i) == (previous == null ? IntIntMap.NO_VALUE : previous) : "Wrong put() for " + key;
+			} else {
+				Integer previous = expected.remove(key);
+				assert map.remove(key) == (previous == null ? IntIntMap.NO_VALUE : previous) : "Wrong remove() for " + key;
+			}
+			assert map.size() == expected.size() : "Size was " + map.size() + " instead of " + expected.size();
+		}
+		for(int key = 0; key < 64; ++key) {
+			Integer value = expected.get(key);
+			assert map.get(key) == (value == null ? IntIntMap.NO_VALUE : value) : "Wrong get() for " + key;
+		}
+		assert map.computeIfAbsent(1000, k -> k + 1) == 1001;
+		assert map.computeIfAbsent(1000, k -> k + 2) == 1001 : "computeIfAbsent() replaced a present key";
+	}
+}
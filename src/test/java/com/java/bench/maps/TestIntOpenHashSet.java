@@ -0,0 +1,26 @@
+package com.java.bench.maps;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class TestIntOpenHashSet {
+
+	/**
+	 * Random adds (including the key 0, which is kept outside the table) starting from a tiny set, so that it rehashes
+	 * many times. Check against java.util.HashSet.
+	 */
+	public void testAddContains() {
+		IntOpenHashSet set = new IntOpenHashSet(1);
+		Set<Integer> expected = new HashSet<>();
+		Random random = new Random(42);
+		for(int i = 0; i < 100000; ++i) {
+			int key = random.nextInt(50000) - 1000;
+			assert set.add(key) == expected.add(key) : "Wrong add() for " + key;
+			assert set.size() == expected.size() : "Size was " + set.size() + " instead of " + expected.size();
+		}
+		for(int key = -2000; key < 60000; ++key) {
+			assert set.contains(key) == expected.contains(key) : "Wrong contains() for " + key;
+		}
+	}
+}
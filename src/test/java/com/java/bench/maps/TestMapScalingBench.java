@@ -0,0 +1,49 @@
+package com.java.bench.maps;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Param;
+
+public class TestMapScalingBench {
+
+	/**
+	 * Every loadFactor must fill the same table to a different fraction, whether the map was presized or grown.
+	 * Otherwise sweeping it measures nothing.
+	 */
+	public void testLoadFactorFillsTable() throws NoSuchFieldException, SecurityException {
+		Field loadFactorField = MapScalingBench.MapState.class.getDeclaredField("loadFactor");
+		String[] loadFactors = loadFactorField.getAnnotationsByType(Param.class)[0].value();
+		Set<Integer> keyCounts = new HashSet<>();
+		for(String loadFactor: loadFactors) {
+			for(String sizing: new String[] {"presized", "grown"}) {
+				MapScalingBench.MapState mapState = new MapScalingBench.MapState();
+				mapState.HASH_MAP_SIZE = 1023;
+				mapState.mapType = "IntIntOpenHashMap";
+				mapState.sizing = sizing;
+				mapState.loadFactor = Float.parseFloat(loadFactor);
+				mapState.setup();
+
+				IntIntOpenHashMap map = (IntIntOpenHashMap) mapState.map;
+				assert map.slots() == 1024 : sizing + " map at loadFactor " + loadFactor + " has " + map.slots() + " slots";
+				assert map.size() == (int) (1024 * mapState.loadFactor) : "Wrong size " + map.size();
+				keyCounts.add(map.size());
+			}
+		}
+		assert keyCounts.size() == loadFactors.length : "Some loadFactors filled the table to the same size " + keyCounts;
+	}
+
+	/**
+	 * keyFor() must stay within the keys that were put, and reach both ends of them.
+	 */
+	public void testKeyFor() {
+		MapScalingBench.MapState mapState = new MapScalingBench.MapState();
+		mapState.keyCount = 768;
+		assert mapState.keyFor(0) == 0;
+		assert mapState.keyFor(-1) == 767 : "keyFor(-1) was " + mapState.keyFor(-1);
+		assert mapState.keyFor(Integer.MIN_VALUE) == 384 : "keyFor(MIN_VALUE) was " + mapState.keyFor(Integer.MIN_VALUE);
+		assert mapState.keyFor(Integer.MAX_VALUE) == 383 : "keyFor(MAX_VALUE) was " + mapState.keyFor(Integer.MAX_VALUE);
+	}
+
+}
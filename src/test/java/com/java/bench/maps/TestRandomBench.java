@@ -1,5 +1,11 @@
 package com.java.bench.maps;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.java.bench.rng.RandomBench;
 import com.java.bench.util.rng.BenchRandomUtil;
 
 public class TestRandomBench {
@@ -7,12 +13,23 @@ public class TestRandomBench {
 	/**
 	 * We should check that all algorithms implemented in BenchRandomUtil are being benchmarked.
 	 * Admittedly this is not ideal.
-	 * TODO : create a convention for method names in BenchRandomUtil, follow it and check over here.
+	 * The convention is that every algorithm is a public method of BenchRandomUtil named getNext*. Private helpers
+	 * (e.g. for seeding) don't count.
 	 */
 	public void testAllAlgorithmsInBenchRandom() {
-		assert BenchRandomUtil.class.getDeclaredMethods().length == 3 :
+		int algorithms = 0;
+		for(Method method : BenchRandomUtil.class.getDeclaredMethods()) {
+			if(Modifier.isPublic(method.getModifiers()) && method.getName().startsWith("getNext")) algorithms++;
+		}
+		assert algorithms == 7 :
 			"Please check that all implemented BenchRandomUtil algorithms are also added to RandomBench. Found "
-			+ BenchRandomUtil.class.getDeclaredMethods().length;
+			+ algorithms;
+
+		int benchmarks = 0;
+		for(Method method : RandomBench.class.getDeclaredMethods()) {
+			if(method.isAnnotationPresent(Benchmark.class)) benchmarks++;
+		}
+		assert benchmarks == algorithms : "RandomBench has " + benchmarks + " benchmarks for " + algorithms + " algorithms";
 	}
 
 }
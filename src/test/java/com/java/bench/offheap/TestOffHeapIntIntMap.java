@@ -0,0 +1,54 @@
+package com.java.bench.offheap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.java.bench.maps.IntIntMap;
+
+public class TestOffHeapIntIntMap {
+
+	/**
+	 * Lots of random puts and removes on a small key-range (so that probe runs are long and wrap around), checked against
+	 * java.util.HashMap after every operation.
+	 */
+	public void testPutGetRemove() {
+		OffHeapIntIntMap map = OffHeapIntIntMap.newOffHeapMap("ByteBufferIntIntMap", 32);
+		Map<Integer, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		for(int i = 0; i < 100000; ++i) {
+			int key = random.nextInt(48) - 8;
+			if(random.nextBoolean()) {
+				Integer previous = expected.put(key, i);
+				assert map.put(key, i) == (previous == null ? IntIntMap.NO_VALUE : previous) : "Wrong put() for " + key;
+			} else {
+				Integer previous = expected.remove(key);
+				assert map.remove(key) == (previous == null ? IntIntMap.NO_VALUE : previous) : "Wrong remove() for " + key;
+			}
+			assert map.size() == expected.size() : "Size was " + map.size() + " instead of " + expected.size();
+		}
+		for(int key = -8; key < 40; ++key) {
+			Integer value = expected.get(key);
+			assert map.get(key) == (value == null ? IntIntMap.NO_VALUE : value) : "Wrong get() for " + key;
+		}
+	}
+
+	/**
+	 * The number of slots is fixed : 4 keys get 8 slots, and the last slot always stays free.
+	 */
+	public void testFull() {
+		OffHeapIntIntMap map = OffHeapIntIntMap.newOffHeapMap("ByteBufferIntIntMap", 4);
+		for(int key = 1; key <= 7; ++key) {
+			map.put(key, key);
+		}
+		assert map.put(7, 70) == 7 : "Overwriting a key of a full map failed";
+		try {
+			map.put(8, 8);
+			assert false : "put() of a new key into a full map succeeded";
+		} catch(IllegalStateException e) {
+			//Expected
+		}
+		assert map.get(8) == IntIntMap.NO_VALUE;
+		assert map.put(0, 0) == IntIntMap.NO_VALUE : "The key 0 is stored outside the table, so it always fits";
+	}
+}
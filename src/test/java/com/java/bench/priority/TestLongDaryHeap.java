@@ -0,0 +1,89 @@
+package com.java.bench.priority;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestLongDaryHeap {
+
+	/**
+	 * Random offers, polls and arbitrary removes, checked against a TreeSet after every operation, for a few arities.
+	 * Priorities are drawn from a small range so that there are ties.
+	 */
+	public void testAgainstTreeSet() {
+		for(int arity : new int[] {2, 3, 4, 8}) {
+			checkAgainstTreeSet(new LongDaryHeap(256, arity));
+		}
+	}
+
+	private void checkAgainstTreeSet(LongDaryHeap heap) {
+		//Ordered by priority and then id, encoded as (priority << 8 | id)
+		TreeSet<Long> expected = new TreeSet<>();
+		Random random = new Random(42);
+		for(int i = 0; i < 200000; ++i) {
+			int id = random.nextInt(256);
+			int op = random.nextInt(3);
+			if(op == 0) {
+				long priority = random.nextInt(64);
+				boolean wasPresent = heap.contains(id);
+				boolean offered = heap.offer(id, priority);
+				assert offered == !wasPresent : "offer() returned " + offered + " for " + id;
+				if(offered) expected.add(priority << 8 | id);
+			} else if(op == 1) {
+				int polled = heap.pollId();
+				Long first = expected.pollFirst();
+				if(first == null) {
+					assert polled == LongDaryHeap.NO_ID : "Polled " + polled + " from an empty heap";
+				} else {
+					//With ties, any of the ids with the lowest priority is fine
+					long priority = first >>> 8;
+					if(polled != (int) (first & 255)) {
+						expected.add(first);
+						assert expected.remove(priority << 8 | polled) : "Polled " + polled + " which wasn't the lowest";
+					}
+				}
+			} else {
+				boolean wasPresent = heap.contains(id);
+				long priority = wasPresent ? heap.priorityOf(id) : -1;
+				assert heap.remove(id) == wasPresent;
+				if(wasPresent) assert expected.remove(priority << 8 | id) : "Removed " + id + " with the wrong priority";
+				assert !heap.contains(id);
+			}
+			assert heap.size() == expected.size() : "Size was " + heap.size() + " instead of " + expected.size();
+			if(!expected.isEmpty()) {
+				assert heap.peekPriority() == expected.first() >>> 8 : "Wrong lowest priority";
+			}
+		}
+	}
+
+	/**
+	 * Every PriorityStructure must give the same keys back in the same order.
+	 */
+	public void testStructures() {
+		for(String type : new String[] {"TreeSet", "PriorityQueue", "ConcurrentSkipListSet", "PriorityBlockingQueue",
+				"LongDaryHeap", "LongDaryHeap-2", "SynchronizedLongDaryHeap"}) {
+			PriorityStructure structure = PriorityStructure.newStructure(type, 1024);
+			Random random = new Random(42);
+			long[] keys = new long[1024];
+			for(int id = 0; id < keys.length; ++id) {
+				keys[id] = PriorityStructure.newKey(random.nextInt(), id);
+				structure.offer(keys[id]);
+			}
+			for(int id = 0; id < keys.length; id += 2) {
+				assert structure.remove(keys[id]) : type + " didn't remove " + keys[id];
+				assert !structure.remove(keys[id]) : type + " removed " + keys[id] + " twice";
+			}
+			assert structure.size() == keys.length / 2;
+			long previous = -1;
+			for(int i = 0; i < keys.length / 2; ++i) {
+				long peeked = structure.peek();
+				long key = structure.poll();
+				assert peeked == key : type + " peeked " + peeked + " but polled " + key;
+				assert key > previous : type + " polled " + key + " after " + previous;
+				assert (PriorityStructure.idOf(key) & 1) == 1 : type + " polled a removed key";
+				previous = key;
+			}
+			assert structure.poll() == PriorityStructure.NO_KEY;
+			assert structure.peek() == PriorityStructure.NO_KEY;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.java.bench.queues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class TestArrayQueues {
+
+	/**
+	 * From a single thread : FIFO order, the capacity is rounded up to a power of 2, offer() fails when full, poll()
+	 * returns null when empty, and the indices wrap around the ring many times.
+	 */
+	public void testSingleThreaded() {
+		checkSingleThreaded(new SpscArrayQueue<>(6));
+		checkSingleThreaded(new MpscArrayQueue<>(6));
+	}
+
+	private void checkSingleThreaded(Queue<Integer> queue) {
+		assert queue.poll() == null : "Empty queue returned an element";
+		assert queue.peek() == null;
+		int next = 0;
+		for(int round = 0; round < 100; ++round) {
+			for(int i = 0; i < 8; ++i) {
+				assert queue.offer(next + i) : "Offer " + i + " failed before the queue of capacity 8 was full";
+			}
+			assert !queue.offer(-1) : "Offer succeeded on a full queue";
+			assert queue.size() == 8 : "Size was " + queue.size();
+			assert queue.peek() == next;
+			for(int i = 0; i < 8; ++i) {
+				assert queue.poll() == next++ : "Elements were not polled in FIFO order";
+			}
+			assert queue.poll() == null;
+			assert queue.isEmpty();
+		}
+	}
+
+	public void testDrainTo() {
+		SpscArrayQueue<Integer> spsc = new SpscArrayQueue<>(8);
+		MpscArrayQueue<Integer> mpsc = new MpscArrayQueue<>(8);
+		for(int i = 0; i < 5; ++i) {
+			spsc.offer(i);
+			mpsc.offer(i);
+		}
+		List<Integer> drained = new ArrayList<>();
+		assert spsc.drainTo(drained, 3) == 3;
+		assert spsc.drainTo(drained, 3) == 2;
+		assert spsc.drainTo(drained, 3) == 0;
+		assert mpsc.drainTo(drained, 3) == 3;
+		assert mpsc.drainTo(drained, 3) == 2;
+		assert mpsc.drainTo(drained, 3) == 0;
+		assert drained.toString().equals("[0, 1, 2, 3, 4, 0, 1, 2, 3, 4]") : "Drained " + drained;
+		assert spsc.isEmpty() && mpsc.isEmpty();
+	}
+
+	/**
+	 * 1 producer and 1 consumer thread through a small SpscArrayQueue : every element arrives, in order.
+	 */
+	public void testSpscConcurrent() throws InterruptedException {
+		final int count = 1000000;
+		SpscArrayQueue<Integer> queue = new SpscArrayQueue<>(64);
+		Thread producer = new Thread(() -> {
+			for(int i = 0; i < count; ++i) {
+				while(!queue.offer(i)) {
+					Thread.yield();
+				}
+			}
+		});
+		producer.start();
+		for(int i = 0; i < count; ++i) {
+			Integer e;
+			while((e = queue.poll()) == null) {
+				Thread.yield();
+			}
+			assert e == i : "Expected " + i + " but polled " + e;
+		}
+		producer.join();
+		assert queue.poll() == null;
+	}
+
+	/**
+	 * 4 producer threads and 1 consumer through a small MpscArrayQueue : every element arrives exactly once, and the
+	 * elements of each producer arrive in the order it offered them.
+	 */
+	public void testMpscConcurrent() throws InterruptedException {
+		final int producers = 4;
+		final int countPerProducer = 250000;
+		MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(64);
+		List<Thread> threads = new ArrayList<>();
+		for(int p = 0; p < producers; ++p) {
+			final int producer = p;
+			Thread thread = new Thread(() -> {
+				for(int i = 0; i < countPerProducer; ++i) {
+					while(!queue.offer(i * producers + producer)) {
+						Thread.yield();
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		int[] nextFromProducer = new int[producers];
+		List<Object> batch = new ArrayList<>();
+		int received = 0;
+		while(received < producers * countPerProducer) {
+			batch.clear();
+			//Alternate between poll() and drainTo() so that both see the slots producers have claimed but not filled.
+			if((received & 1) == 0) {
+				Integer e = queue.poll();
+				if(e != null) batch.add(e);
+			} else {
+				queue.drainTo(batch, 16);
+			}
+			if(batch.isEmpty()) Thread.yield();
+			for(Object o : batch) {
+				int e = (Integer) o;
+				int producer = e % producers;
+				assert e / producers == nextFromProducer[producer] : "Producer " + producer + "'s elements out of order";
+				nextFromProducer[producer]++;
+				received++;
+			}
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		assert queue.poll() == null : "More elements than were offered";
+	}
+}
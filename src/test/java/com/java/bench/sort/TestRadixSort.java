@@ -0,0 +1,49 @@
+package com.java.bench.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestRadixSort {
+
+	/**
+	 * Check against Arrays.sort(), for random keys (including negative ones, and the extremes), for keys that only
+	 * differ in some bytes (so that some passes are skipped) and for tiny arrays.
+	 */
+	public void testSort() {
+		Random random = new Random(42);
+		for(int length : new int[] {0, 1, 2, 3, 100, 10000}) {
+			int[] keys = new int[length];
+			for(int i = 0; i < length; ++i) {
+				keys[i] = random.nextInt();
+			}
+			if(length > 2) {
+				keys[0] = Integer.MIN_VALUE;
+				keys[1] = Integer.MAX_VALUE;
+				keys[2] = 0;
+			}
+			checkSort(keys);
+
+			for(int i = 0; i < length; ++i) {
+				keys[i] = random.nextInt(256) << 8;
+			}
+			checkSort(keys);
+		}
+	}
+
+	private void checkSort(int[] keys) {
+		int[] expected = keys.clone();
+		Arrays.sort(expected);
+		int[] actual = keys.clone();
+		RadixSort.sort(actual, new int[keys.length + 5]);
+		assert Arrays.equals(expected, actual) : "Wrong order for " + keys.length + " keys";
+	}
+
+	public void testShortBuffer() {
+		try {
+			RadixSort.sort(new int[10], new int[9]);
+			assert false : "A buffer shorter than the array was accepted";
+		} catch(IllegalArgumentException e) {
+			//Expected
+		}
+	}
+}
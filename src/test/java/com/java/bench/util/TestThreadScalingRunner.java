@@ -0,0 +1,24 @@
+package com.java.bench.util;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.annotations.Mode;
+
+public class TestThreadScalingRunner {
+
+	public void testThreadCounts() {
+		assert ThreadScalingRunner.threadCounts(1).equals(Arrays.asList(1, 2));
+		assert ThreadScalingRunner.threadCounts(8).equals(Arrays.asList(1, 2, 4, 8, 16));
+		assert ThreadScalingRunner.threadCounts(6).equals(Arrays.asList(1, 2, 4, 6, 12)) :
+			ThreadScalingRunner.threadCounts(6);
+	}
+
+	/**
+	 * Throughput is already the total of all threads. AverageTime is per operation of each thread, so 4 threads
+	 * taking 2 units per operation do 2 operations per unit.
+	 */
+	public void testTotalThroughput() {
+		assert ThreadScalingRunner.totalThroughput(Mode.Throughput, 4, 100) == 100;
+		assert ThreadScalingRunner.totalThroughput(Mode.AverageTime, 4, 2) == 2;
+	}
+}
@@ -0,0 +1,44 @@
+package com.java.bench.util.environ;
+
+import com.java.bench.util.SizeSweep;
+
+public class TestEnvironment {
+
+	public void testParseCacheSize() {
+		assert Environment.parseCacheSize("48K") == 48 * 1024;
+		assert Environment.parseCacheSize("2048K\n") == 2048 * 1024;
+		assert Environment.parseCacheSize("32M") == 32 * 1024 * 1024;
+		assert Environment.parseCacheSize("512") == 512;
+		assert Environment.parseCacheSize("") == -1;
+		assert Environment.parseCacheSize(null) == -1;
+	}
+
+	/**
+	 * The swept sizes are used as masks, so they MUST BE 2^n-1. They should also reach beyond any L3 cache.
+	 */
+	public void testSizeSweep() {
+		String[] sizes = SizeSweep.defaultSizes();
+		for(String value : sizes) {
+			int size = Integer.parseInt(value);
+			assert (size & (size + 1)) == 0 : "Size " + size + " is not 2^n-1";
+		}
+		assert Integer.parseInt(sizes[sizes.length - 1]) >= (1 << 24) - 1 : "The sweep stops at " + sizes[sizes.length - 1];
+	}
+
+	/**
+	 * The sizes are marked with the smallest cache they fit in, and nothing when the cache sizes aren't known (e.g. not
+	 * on Linux).
+	 */
+	public void testSmallestCache() throws Exception {
+		Environment environment = new Environment();
+		environment.l1dCacheSize = "32K";
+		environment.l2CacheSize = "1024K";
+		environment.l3CacheSize = "32M";
+		assert SizeSweep.smallestCache(32 * 1024, environment).equals("L1d");
+		assert SizeSweep.smallestCache(32 * 1024 + 1, environment).equals("L2");
+		assert SizeSweep.smallestCache(16 << 20, environment).equals("L3");
+		assert SizeSweep.smallestCache(64 << 20, environment).equals("DRAM");
+		environment.l1dCacheSize = environment.l2CacheSize = environment.l3CacheSize = "";
+		assert SizeSweep.smallestCache(1024, environment).equals("?");
+	}
+}
@@ -0,0 +1,63 @@
+package com.java.bench.util.rng;
+
+import java.util.Arrays;
+
+public class TestKeyDistribution {
+	private static final int KEY_RANGE = 8191;
+	private static final int SAMPLES = 1 << 20;
+
+	private int[] histogram(String name) {
+		KeyDistribution keys = KeyDistribution.newDistribution(name, KEY_RANGE, new BenchRandomUtil(42));
+		int[] counts = new int[KEY_RANGE + 1];
+		for(int i = 0; i < SAMPLES; ++i) {
+			int key = keys.nextKey();
+			assert key >= 0 && key <= KEY_RANGE : name + " returned " + key + " which is outside the key-range";
+			counts[key]++;
+		}
+		return counts;
+	}
+
+	/**
+	 * Every distribution should only return keys in the key-range. Uniform and sequential should also cover all of it.
+	 */
+	public void testKeyRange() {
+		for(String name : new String[] {"uniform", "zipfian", "hotspot", "sequential"}) {
+			int[] counts = histogram(name);
+			if(name.equals("uniform") || name.equals("sequential")) {
+				for(int key = 0; key <= KEY_RANGE; ++key) {
+					assert counts[key] > 0 : name + " never returned " + key;
+				}
+			}
+		}
+	}
+
+	/**
+	 * With theta = 0.99 the most popular key should get roughly 1/zeta(8192, 0.99) ~ 10% of the operations, and the
+	 * 10 most popular keys close to 30%.
+	 */
+	public void testZipfianIsSkewed() {
+		int[] counts = histogram("zipfian");
+		Arrays.sort(counts);
+		int top10 = 0;
+		for(int i = 0; i < 10; ++i) {
+			top10 += counts[counts.length - 1 - i];
+		}
+		double hottest = (double) counts[counts.length - 1] / SAMPLES;
+		assert hottest > 0.08 && hottest < 0.12 : "Hottest key got " + hottest + " of the operations";
+		assert (double) top10 / SAMPLES > 0.25 : "Top 10 keys only got " + (double) top10 / SAMPLES;
+	}
+
+	/**
+	 * hotspot-90-10 should send ~90% of the operations to the first 10% of the keys.
+	 */
+	public void testHotspot() {
+		int[] counts = histogram("hotspot-90-10");
+		int hotKeys = (KEY_RANGE + 1) / 10;
+		long hotOps = 0;
+		for(int key = 0; key < hotKeys; ++key) {
+			hotOps += counts[key];
+		}
+		double hotFraction = (double) hotOps / SAMPLES;
+		assert hotFraction > 0.88 && hotFraction < 0.92 : "Hot keys got " + hotFraction + " of the operations";
+	}
+}